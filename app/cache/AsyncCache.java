@@ -0,0 +1,246 @@
+package cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * Bounded in-process cache of asynchronously loaded values.
+ * Entries are evicted in LRU order once {@code maxSize} is reached, and expire {@code ttl} (or their own {@code expiry}) after being loaded.
+ * Concurrent misses on the same key share a single call to the loader.
+ */
+public class AsyncCache<K, V> {
+
+    private final String name;
+    private final int maxSize;
+    private final Function<? super V, Duration> expiry;
+    private final LongSupplier ticker;
+
+    private final Map<K, Entry<V>> entries;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+
+    public AsyncCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, ttl, v -> true);
+    }
+
+    public AsyncCache(String name, int maxSize, Duration ttl, Predicate<? super V> cacheable) {
+        this(name, maxSize, v -> cacheable.test(v) ? ttl : Duration.ZERO);
+    }
+
+    /**
+     * @param expiry time to live of each loaded value; values with a zero time to live are returned but not stored
+     */
+    public AsyncCache(String name, int maxSize, Function<? super V, Duration> expiry) {
+        this(name, maxSize, expiry, System::nanoTime);
+    }
+
+    AsyncCache(String name, int maxSize, Function<? super V, Duration> expiry, LongSupplier ticker) {
+        this.name = name;
+        this.maxSize = maxSize;
+        this.expiry = expiry;
+        this.ticker = ticker;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                return size() > AsyncCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for {@code key}, or loads it with {@code loader} if absent or expired.
+     * Values rejected by the {@code cacheable} predicate, or with a zero expiry, are returned but not stored.
+     */
+    public CompletionStage<V> get(K key, Function<? super K, ? extends CompletionStage<V>> loader) {
+        final V cached = getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+        misses.increment();
+
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> pending = inFlight.putIfAbsent(key, future);
+        if (pending != null) {
+            return pending;
+        }
+
+        loads.increment();
+        final CompletionStage<V> loading;
+        try {
+            loading = loader.apply(key);
+        } catch (RuntimeException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+            return future;
+        }
+        loading.whenComplete((value, e) -> {
+            // An invalidation while loading removes the in-flight future, so the stale value is not stored
+            if (inFlight.remove(key, future) && e == null && value != null) {
+                put(key, value);
+            }
+            if (e != null) {
+                future.completeExceptionally(e);
+            } else {
+                future.complete(value);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Returns the values for {@code keys}, loading every missing key with a single call to {@code loader}.
+     * Keys currently being loaded, by {@link #get} or another {@code getAll}, are joined rather than loaded again.
+     * Keys that the loader leaves out of its result are absent from the returned map.
+     */
+    public CompletionStage<Map<K, V>> getAll(Collection<? extends K> keys, Function<? super Set<K>, ? extends CompletionStage<Map<K, V>>> loader) {
+        final Map<K, V> found = new HashMap<>();
+        final Map<K, CompletableFuture<V>> pending = new HashMap<>();
+        final Map<K, CompletableFuture<V>> missing = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (found.containsKey(key) || pending.containsKey(key) || missing.containsKey(key)) {
+                continue;
+            }
+            final V cached = getIfPresent(key);
+            if (cached != null) {
+                hits.increment();
+                found.put(key, cached);
+                continue;
+            }
+            misses.increment();
+            // Registered like in get, so that an invalidation while loading keeps the stale value out
+            final CompletableFuture<V> future = new CompletableFuture<>();
+            final CompletableFuture<V> loading = inFlight.putIfAbsent(key, future);
+            if (loading != null) {
+                pending.put(key, loading);
+            } else {
+                missing.put(key, future);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            loads.increment();
+            CompletionStage<Map<K, V>> loading;
+            try {
+                loading = loader.apply(Collections.unmodifiableSet(new LinkedHashSet<>(missing.keySet())));
+            } catch (RuntimeException e) {
+                final CompletableFuture<Map<K, V>> failed = new CompletableFuture<>();
+                failed.completeExceptionally(e);
+                loading = failed;
+            }
+            loading.whenComplete((values, e) -> missing.forEach((key, future) -> {
+                final V value = e == null ? values.get(key) : null;
+                if (inFlight.remove(key, future) && value != null) {
+                    put(key, value);
+                }
+                if (e != null) {
+                    future.completeExceptionally(e);
+                } else {
+                    future.complete(value);
+                }
+            }));
+            pending.putAll(missing);
+        }
+
+        return CompletableFuture.allOf(pending.values().toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> {
+                    final Map<K, V> result = new HashMap<>(found);
+                    pending.forEach((key, future) -> {
+                        final V value = future.join();
+                        if (value != null) {
+                            result.put(key, value);
+                        }
+                    });
+                    return result;
+                });
+    }
+
+    public V getIfPresent(K key) {
+        synchronized (entries) {
+            final Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (ticker.getAsLong() - entry.expiresAt >= 0) {
+                entries.remove(key);
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    /**
+     * Stores {@code value} for {@code key}, unless its expiry is zero.
+     */
+    public void put(K key, V value) {
+        final long ttlNanos = expiry.apply(value).toNanos();
+        if (ttlNanos <= 0) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, ticker.getAsLong() + ttlNanos));
+        }
+    }
+
+    public void invalidate(K key) {
+        inFlight.remove(key);
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        inFlight.clear();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long loadCount() {
+        return loads.sum();
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long expiresAt;
+
+        Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package cache;
+
+import env.MarvelHeroesConfiguration;
+import metrics.Metrics;
+import models.Hero;
+import play.Logger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Optional;
+
+/**
+ * Deserialized heroes by id. Unknown heroes (and lookups that failed) are never cached.
+ */
+@Singleton
+public class HeroCache extends AsyncCache<String, Optional<Hero>> {
+
+    private static final Logger.ALogger LOGGER = Logger.of("HeroCache");
+
+    @Inject
+    public HeroCache(MarvelHeroesConfiguration configuration, Metrics metrics) {
+        super("heroes",
+                configuration.heroCacheConfiguration.maxSize,
+                configuration.heroCacheConfiguration.ttl,
+                Optional::isPresent);
+        metrics.registerCache(this);
+    }
+
+    @Override
+    public void invalidate(String heroId) {
+        LOGGER.debug("Invalidate hero " + heroId);
+        super.invalidate(heroId);
+    }
+
+    @Override
+    public void invalidateAll() {
+        LOGGER.debug("Invalidate all heroes");
+        super.invalidateAll();
+    }
+}
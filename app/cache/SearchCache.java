@@ -0,0 +1,54 @@
+package cache;
+
+import env.CacheConfiguration;
+import env.MarvelHeroesConfiguration;
+import metrics.Metrics;
+import models.PaginatedResults;
+import models.SearchedHero;
+import play.Logger;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Search results by normalized query, size and page.
+ * Searches with no hits are cached for the shorter {@code negativeTtl}; failed searches are not cached at all.
+ * The whole cache must be invalidated when the heroes index is reloaded.
+ */
+@Singleton
+public class SearchCache extends AsyncCache<String, PaginatedResults<SearchedHero>> {
+
+    private static final Logger.ALogger LOGGER = Logger.of("SearchCache");
+
+    @Inject
+    public SearchCache(MarvelHeroesConfiguration configuration, Metrics metrics) {
+        this(configuration.searchCacheConfiguration);
+        metrics.registerCache(this);
+    }
+
+    private SearchCache(CacheConfiguration cacheConfiguration) {
+        super("searches",
+                cacheConfiguration.maxSize,
+                results -> results.results.isEmpty() ? cacheConfiguration.negativeTtl : cacheConfiguration.ttl);
+    }
+
+    /**
+     * Trims and collapses whitespace. Not lower-cased: query_string operators (AND, OR, NOT) are case sensitive.
+     */
+    public static String normalize(String query) {
+        return query.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Expects a query already {@link #normalize normalized}, the one that is actually searched.
+     */
+    public static String key(String query, int size, int page) {
+        return query + '|' + size + '|' + page;
+    }
+
+    @Override
+    public void invalidateAll() {
+        LOGGER.debug("Invalidate all searches");
+        super.invalidateAll();
+    }
+}
@@ -0,0 +1,94 @@
+package codecs;
+
+import org.bson.BsonReader;
+import org.bson.BsonType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Lenient readers for the loosely typed values written by the CSV import, where numbers may be stored as strings
+ * and lists as a single string.
+ */
+final class BsonReaders {
+
+    private BsonReaders() {}
+
+    static String readString(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case STRING:
+                return reader.readString();
+            case INT32:
+                return String.valueOf(reader.readInt32());
+            case INT64:
+                return String.valueOf(reader.readInt64());
+            case DOUBLE:
+                return String.valueOf(reader.readDouble());
+            case BOOLEAN:
+                return String.valueOf(reader.readBoolean());
+            case OBJECT_ID:
+                return reader.readObjectId().toHexString();
+            case NULL:
+                reader.readNull();
+                return null;
+            default:
+                reader.skipValue();
+                return null;
+        }
+    }
+
+    static Optional<String> readOptionalString(BsonReader reader) {
+        return Optional.ofNullable(readString(reader));
+    }
+
+    static List<String> readStringList(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.ARRAY) {
+            final String value = readString(reader);
+            return value == null ? null : Collections.singletonList(value);
+        }
+        final List<String> values = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            values.add(readString(reader));
+        }
+        reader.readEndArray();
+        return values;
+    }
+
+    static Optional<Double> readOptionalNumber(BsonReader reader) {
+        switch (reader.getCurrentBsonType()) {
+            case INT32:
+                return Optional.of((double) reader.readInt32());
+            case INT64:
+                return Optional.of((double) reader.readInt64());
+            case DOUBLE:
+                return Optional.of(reader.readDouble());
+            case STRING:
+                try {
+                    return Optional.of(Double.parseDouble(reader.readString().trim()));
+                } catch (NumberFormatException e) {
+                    return Optional.empty();
+                }
+            case NULL:
+                reader.readNull();
+                return Optional.empty();
+            default:
+                reader.skipValue();
+                return Optional.empty();
+        }
+    }
+
+    static Optional<Integer> readOptionalInt(BsonReader reader) {
+        return readOptionalNumber(reader).map(Double::intValue);
+    }
+
+    static Optional<Float> readOptionalFloat(BsonReader reader) {
+        return readOptionalNumber(reader).map(Double::floatValue);
+    }
+
+    static int readInt(BsonReader reader) {
+        return readOptionalInt(reader).orElse(0);
+    }
+}
@@ -0,0 +1,308 @@
+package codecs;
+
+import models.Hero;
+import models.HeroAppearance;
+import models.HeroIdentity;
+import models.HeroSkills;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decodes hero documents straight into {@link Hero}, with the same leniency as {@link Hero#fromJson(String)}:
+ * a single string is accepted where a list is expected, and numbers may be stored as strings.
+ */
+public class HeroCodec implements Codec<Hero> {
+
+    @Override
+    public Hero decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String name = null;
+        String imageUrl = null;
+        String backgroundImageUrl = null;
+        Optional<String> externalLink = Optional.empty();
+        Optional<String> description = Optional.empty();
+        HeroIdentity identity = null;
+        HeroAppearance appearance = null;
+        List<String> teams = null;
+        List<String> powers = null;
+        List<String> partners = null;
+        HeroSkills skills = null;
+        List<String> creators = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id":
+                    id = BsonReaders.readString(reader);
+                    break;
+                case "name":
+                    name = BsonReaders.readString(reader);
+                    break;
+                case "imageUrl":
+                    imageUrl = BsonReaders.readString(reader);
+                    break;
+                case "backgroundImageUrl":
+                    backgroundImageUrl = BsonReaders.readString(reader);
+                    break;
+                case "externalLink":
+                    externalLink = BsonReaders.readOptionalString(reader);
+                    break;
+                case "description":
+                    description = BsonReaders.readOptionalString(reader);
+                    break;
+                case "identity":
+                    identity = readIdentity(reader);
+                    break;
+                case "appearance":
+                    appearance = readAppearance(reader);
+                    break;
+                case "teams":
+                    teams = BsonReaders.readStringList(reader);
+                    break;
+                case "powers":
+                    powers = BsonReaders.readStringList(reader);
+                    break;
+                case "partners":
+                    partners = BsonReaders.readStringList(reader);
+                    break;
+                case "skills":
+                    skills = readSkills(reader);
+                    break;
+                case "creators":
+                    creators = BsonReaders.readStringList(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new Hero(id, name, imageUrl, backgroundImageUrl, externalLink, description, identity, appearance, teams, powers, partners, skills, creators);
+    }
+
+    private HeroIdentity readIdentity(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        List<String> secretIdentities = null;
+        Optional<String> birthPlace = Optional.empty();
+        Optional<String> occupation = Optional.empty();
+        List<String> aliases = null;
+        Optional<String> alignment = Optional.empty();
+        Optional<String> firstAppearance = Optional.empty();
+        Optional<Integer> yearAppearance = Optional.empty();
+        String universe = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "secretIdentities":
+                    secretIdentities = BsonReaders.readStringList(reader);
+                    break;
+                case "birthPlace":
+                    birthPlace = BsonReaders.readOptionalString(reader);
+                    break;
+                case "occupation":
+                    occupation = BsonReaders.readOptionalString(reader);
+                    break;
+                case "aliases":
+                    aliases = BsonReaders.readStringList(reader);
+                    break;
+                case "alignment":
+                    alignment = BsonReaders.readOptionalString(reader);
+                    break;
+                case "firstAppearance":
+                    firstAppearance = BsonReaders.readOptionalString(reader);
+                    break;
+                case "yearAppearance":
+                    yearAppearance = BsonReaders.readOptionalInt(reader);
+                    break;
+                case "universe":
+                    universe = BsonReaders.readString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new HeroIdentity(secretIdentities, birthPlace, occupation, aliases, alignment, firstAppearance, yearAppearance, universe);
+    }
+
+    private HeroAppearance readAppearance(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        Optional<String> gender = Optional.empty();
+        Optional<String> type = Optional.empty();
+        Optional<String> race = Optional.empty();
+        Optional<Float> height = Optional.empty();
+        Optional<Float> weight = Optional.empty();
+        Optional<String> eyeColor = Optional.empty();
+        Optional<String> hairColor = Optional.empty();
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "gender":
+                    gender = BsonReaders.readOptionalString(reader);
+                    break;
+                case "type":
+                    type = BsonReaders.readOptionalString(reader);
+                    break;
+                case "race":
+                    race = BsonReaders.readOptionalString(reader);
+                    break;
+                case "height":
+                    height = BsonReaders.readOptionalFloat(reader);
+                    break;
+                case "weight":
+                    weight = BsonReaders.readOptionalFloat(reader);
+                    break;
+                case "eyeColor":
+                    eyeColor = BsonReaders.readOptionalString(reader);
+                    break;
+                case "hairColor":
+                    hairColor = BsonReaders.readOptionalString(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new HeroAppearance(gender, type, race, height, weight, eyeColor, hairColor);
+    }
+
+    private HeroSkills readSkills(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        int intelligence = 0;
+        int strength = 0;
+        int speed = 0;
+        int durability = 0;
+        int combat = 0;
+        int power = 0;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "intelligence":
+                    intelligence = BsonReaders.readInt(reader);
+                    break;
+                case "strength":
+                    strength = BsonReaders.readInt(reader);
+                    break;
+                case "speed":
+                    speed = BsonReaders.readInt(reader);
+                    break;
+                case "durability":
+                    durability = BsonReaders.readInt(reader);
+                    break;
+                case "combat":
+                    combat = BsonReaders.readInt(reader);
+                    break;
+                case "power":
+                    power = BsonReaders.readInt(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new HeroSkills(intelligence, strength, speed, durability, combat, power);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, Hero hero, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writeString(writer, "id", hero.id);
+        writeString(writer, "name", hero.name);
+        writeString(writer, "imageUrl", hero.imageUrl);
+        writeString(writer, "backgroundImageUrl", hero.backgroundImageUrl);
+        writeString(writer, "externalLink", hero.externalLink);
+        writeString(writer, "description", hero.description);
+        writeStringList(writer, "teams", hero.teams);
+        writeStringList(writer, "powers", hero.powers);
+        writeStringList(writer, "partners", hero.partners);
+        writeStringList(writer, "creators", hero.creators);
+        if (hero.appearance != null) {
+            final HeroAppearance appearance = hero.appearance;
+            writer.writeStartDocument("appearance");
+            writeString(writer, "gender", appearance.gender);
+            writeString(writer, "type", appearance.type);
+            writeString(writer, "race", appearance.race);
+            writeNumber(writer, "height", appearance.height);
+            writeNumber(writer, "weight", appearance.weight);
+            writeString(writer, "eyeColor", appearance.eyeColor);
+            writeString(writer, "hairColor", appearance.hairColor);
+            writer.writeEndDocument();
+        }
+        if (hero.identity != null) {
+            final HeroIdentity identity = hero.identity;
+            writer.writeStartDocument("identity");
+            writeStringList(writer, "secretIdentities", identity.secretIdentities);
+            writeString(writer, "birthPlace", identity.birthPlace);
+            writeString(writer, "occupation", identity.occupation);
+            writeStringList(writer, "aliases", identity.aliases);
+            writeString(writer, "alignment", identity.alignment);
+            writeString(writer, "firstAppearance", identity.firstAppearance);
+            if (identity.yearAppearance != null && identity.yearAppearance.isPresent()) {
+                writer.writeInt32("yearAppearance", identity.yearAppearance.get());
+            }
+            writeString(writer, "universe", identity.universe);
+            writer.writeEndDocument();
+        }
+        if (hero.skills != null) {
+            final HeroSkills skills = hero.skills;
+            writer.writeStartDocument("skills");
+            writer.writeInt32("intelligence", skills.intelligence);
+            writer.writeInt32("strength", skills.strength);
+            writer.writeInt32("speed", skills.speed);
+            writer.writeInt32("durability", skills.durability);
+            writer.writeInt32("combat", skills.combat);
+            writer.writeInt32("power", skills.power);
+            writer.writeEndDocument();
+        }
+        writer.writeEndDocument();
+    }
+
+    private static void writeString(BsonWriter writer, String name, String value) {
+        if (value != null) {
+            writer.writeString(name, value);
+        }
+    }
+
+    private static void writeString(BsonWriter writer, String name, Optional<String> value) {
+        if (value != null && value.isPresent()) {
+            writer.writeString(name, value.get());
+        }
+    }
+
+    private static void writeNumber(BsonWriter writer, String name, Optional<Float> value) {
+        if (value != null && value.isPresent()) {
+            writer.writeDouble(name, value.get().doubleValue());
+        }
+    }
+
+    private static void writeStringList(BsonWriter writer, String name, List<String> values) {
+        if (values != null) {
+            writer.writeStartArray(name);
+            values.forEach(writer::writeString);
+            writer.writeEndArray();
+        }
+    }
+
+    @Override
+    public Class<Hero> getEncoderClass() {
+        return Hero.class;
+    }
+}
@@ -0,0 +1,80 @@
+package codecs;
+
+import models.HeroSummary;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Decodes the summary fields of a hero document, usually fetched with a projection on those fields only.
+ */
+public class HeroSummaryCodec implements Codec<HeroSummary> {
+
+    @Override
+    public HeroSummary decode(BsonReader reader, DecoderContext decoderContext) {
+        String id = null;
+        String name = null;
+        String imageUrl = null;
+        String universe = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "id":
+                    id = BsonReaders.readString(reader);
+                    break;
+                case "name":
+                    name = BsonReaders.readString(reader);
+                    break;
+                case "imageUrl":
+                    imageUrl = BsonReaders.readString(reader);
+                    break;
+                case "identity":
+                    universe = readUniverse(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new HeroSummary(id, name, imageUrl, universe);
+    }
+
+    private String readUniverse(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            reader.skipValue();
+            return null;
+        }
+        String universe = null;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.readName().equals("universe")) {
+                universe = BsonReaders.readString(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return universe;
+    }
+
+    @Override
+    public void encode(BsonWriter writer, HeroSummary value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeString("id", value.id);
+        writer.writeString("name", value.name);
+        writer.writeString("imageUrl", value.imageUrl);
+        writer.writeStartDocument("identity");
+        writer.writeString("universe", value.universe);
+        writer.writeEndDocument();
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<HeroSummary> getEncoderClass() {
+        return HeroSummary.class;
+    }
+}
@@ -0,0 +1,49 @@
+package codecs;
+
+import models.ItemCount;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+/**
+ * Decodes {@code {_id: <item>, count: <count>}} group results.
+ */
+public class ItemCountCodec implements Codec<ItemCount> {
+
+    @Override
+    public ItemCount decode(BsonReader reader, DecoderContext decoderContext) {
+        String item = "";
+        int count = 0;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                    item = String.valueOf(BsonReaders.readString(reader));
+                    break;
+                case "count":
+                    count = BsonReaders.readInt(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new ItemCount(item, count);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, ItemCount value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeString("_id", value.item);
+        writer.writeInt32("count", value.count);
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<ItemCount> getEncoderClass() {
+        return ItemCount.class;
+    }
+}
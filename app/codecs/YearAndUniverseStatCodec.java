@@ -0,0 +1,103 @@
+package codecs;
+
+import models.ItemCount;
+import models.YearAndUniverseStat;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Decodes {@code {_id: {yearAppearance: <year>}, byUniverse: [{universe: <universe>, count: <count>}]}} group results.
+ */
+public class YearAndUniverseStatCodec implements Codec<YearAndUniverseStat> {
+
+    @Override
+    public YearAndUniverseStat decode(BsonReader reader, DecoderContext decoderContext) {
+        int year = 0;
+        final List<ItemCount> byUniverse = new ArrayList<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "_id":
+                    year = readYear(reader);
+                    break;
+                case "byUniverse":
+                    reader.readStartArray();
+                    while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+                        byUniverse.add(readUniverseCount(reader));
+                    }
+                    reader.readEndArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new YearAndUniverseStat(year, byUniverse);
+    }
+
+    private int readYear(BsonReader reader) {
+        if (reader.getCurrentBsonType() != BsonType.DOCUMENT) {
+            return BsonReaders.readInt(reader);
+        }
+        int year = 0;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (reader.readName().equals("yearAppearance")) {
+                year = BsonReaders.readInt(reader);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return year;
+    }
+
+    private ItemCount readUniverseCount(BsonReader reader) {
+        String universe = "";
+        int count = 0;
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "universe":
+                    universe = String.valueOf(BsonReaders.readString(reader));
+                    break;
+                case "count":
+                    count = BsonReaders.readInt(reader);
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+        return new ItemCount(universe, count);
+    }
+
+    @Override
+    public void encode(BsonWriter writer, YearAndUniverseStat value, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeStartDocument("_id");
+        writer.writeInt32("yearAppearance", value.yearAppearance);
+        writer.writeEndDocument();
+        writer.writeStartArray("byUniverse");
+        for (ItemCount itemCount : value.byUniverse) {
+            writer.writeStartDocument();
+            writer.writeString("universe", itemCount.item);
+            writer.writeInt32("count", itemCount.count);
+            writer.writeEndDocument();
+        }
+        writer.writeEndArray();
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public Class<YearAndUniverseStat> getEncoderClass() {
+        return YearAndUniverseStat.class;
+    }
+}
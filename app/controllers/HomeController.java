@@ -2,17 +2,26 @@ package controllers;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import env.MarvelHeroesConfiguration;
+import env.ReindexConfiguration;
 import models.*;
 import play.libs.Json;
 import play.mvc.Controller;
 import play.mvc.Http;
 import play.mvc.Result;
+import services.HeroReindexer;
 import services.Heroes;
 import services.Stats;
+import tracing.Trace;
+import tracing.Tracer;
 
 import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
@@ -24,20 +33,30 @@ import java.util.stream.Collectors;
 public class HomeController extends Controller {
 
     private static final int SIZE = 10;
+    private static final int MAX_MGET_SIZE = 100;
+    private static final String START_CURSOR = "*";
+    private static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
     private final Stats stats;
     private final Heroes heroes;
+    private final HeroReindexer heroReindexer;
+    private final Tracer tracer;
+    private final ReindexConfiguration reindexConfiguration;
 
     @Inject
-    public HomeController(Stats stats, Heroes heroes) {
+    public HomeController(Stats stats, Heroes heroes, HeroReindexer heroReindexer, Tracer tracer, MarvelHeroesConfiguration configuration) {
         this.stats = stats;
         this.heroes = heroes;
+        this.heroReindexer = heroReindexer;
+        this.tracer = tracer;
+        this.reindexConfiguration = configuration.reindexConfiguration;
     }
 
     public CompletionStage<Result> heroes(Http.Request request) {
+        final Trace trace = tracer.start("GET /", request);
         CompletableFuture<?>[] completableFutures = new CompletableFuture[]{
-                heroes.searchHeroes("*", SIZE, 1).toCompletableFuture(),
-                stats.topsHeroes(5).toCompletableFuture(),
-                stats.lastsHeroes(5).toCompletableFuture()};
+                trace.span("searchHeroes", () -> heroes.searchHeroes("*", SIZE, 1)).toCompletableFuture(),
+                trace.span("topsHeroes", () -> stats.topsHeroes(5)).toCompletableFuture(),
+                trace.span("lastsHeroes", () -> stats.lastsHeroes(5)).toCompletableFuture()};
         return CompletableFuture.allOf(
                 completableFutures
         ).thenApply(v -> {
@@ -45,16 +64,28 @@ public class HomeController extends Controller {
             PaginatedResults<SearchedHero> heroesRetrieved = (PaginatedResults<SearchedHero>) collect.get(0);
             List<TopStatItem> tops = (List<TopStatItem>) collect.get(1);
             List<StatItem> lasts = (List<StatItem>) collect.get(2);
-            return ok(views.html.heroes.render(request, heroesRetrieved, tops, lasts));
-        });
+            return tracer.withRequestId(ok(views.html.heroes.render(request, heroesRetrieved, tops, lasts)), trace);
+        }).whenComplete((result, e) -> tracer.finish(trace));
 
     }
 
-    public CompletionStage<Result> searchHeroes(String q, int page) {
-        return heroes.searchHeroes(q, SIZE, page)
-                .thenApply(results -> {
-                    return ok(Json.stringify(results.toJson()));
-                });
+    /**
+     * An empty {@code cursor} pages with from/size, {@code *} starts a cursor walk and any other value continues the
+     * walk from the cursor returned with the previous page.
+     */
+    public CompletionStage<Result> searchHeroes(String q, int page, String cursor) {
+        if (cursor.isEmpty()) {
+            return heroes.searchHeroes(q, SIZE, page)
+                    .thenApply(results -> {
+                        return ok(Json.stringify(results.toJson()));
+                    });
+        }
+        final Optional<SearchCursor> searchCursor = START_CURSOR.equals(cursor) ? Optional.empty() : SearchCursor.decode(cursor);
+        if (!START_CURSOR.equals(cursor) && !searchCursor.isPresent()) {
+            return CompletableFuture.completedFuture(badRequest("Invalid cursor"));
+        }
+        return heroes.searchHeroesAfter(q, SIZE, page, searchCursor)
+                .thenApply(results -> ok(Json.stringify(results.toJson())));
     }
 
     public CompletionStage<Result> suggestHeroes(String q) {
@@ -78,11 +109,44 @@ public class HomeController extends Controller {
 
     }
 
+    public CompletionStage<Result> multiGetHeroes(Http.Request request) {
+        final JsonNode body = request.body().asJson();
+        if (body == null || !body.path("ids").isArray()) {
+            return CompletableFuture.completedFuture(badRequest("Expected a JSON body like {\"ids\": [\"heroId\", ...]}"));
+        }
+        final List<String> ids = new ArrayList<>();
+        body.get("ids").forEach(id -> ids.add(id.asText()));
+        if (ids.size() > MAX_MGET_SIZE) {
+            return CompletableFuture.completedFuture(badRequest("At most " + MAX_MGET_SIZE + " ids can be requested at once"));
+        }
+        return heroes.heroes(ids)
+                .thenApply(results -> ok(Json.toJson(results)));
+    }
+
+    /**
+     * Hidden unless {@code reindex.adminToken} is set, and then only for requests carrying it.
+     */
+    public CompletionStage<Result> reindexHeroes(Http.Request request) {
+        if (reindexConfiguration.adminToken.isEmpty()) {
+            return CompletableFuture.completedFuture(notFound());
+        }
+        final String token = request.header(ADMIN_TOKEN_HEADER).orElse("");
+        // Constant time, so that the token cannot be guessed one character at a time
+        if (!MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), reindexConfiguration.adminToken.getBytes(StandardCharsets.UTF_8))) {
+            return CompletableFuture.completedFuture(forbidden());
+        }
+        return heroReindexer.reindex()
+                .thenApply(maybeReport -> maybeReport
+                        .map(report -> ok(report.toJson()))
+                        .orElseGet(() -> status(CONFLICT, "A reindex is already running")));
+    }
+
     public CompletionStage<Result> stats(Http.Request request) {
+        final Trace trace = tracer.start("GET /stats", request);
         CompletableFuture<?>[] completableFutures = new CompletableFuture[]{
-                stats.byUniverse().toCompletableFuture(),
-                stats.byYearAndUniverse().toCompletableFuture(),
-                stats.topPowers(5).toCompletableFuture(),
+                trace.span("byUniverse", () -> stats.byUniverse()).toCompletableFuture(),
+                trace.span("byYearAndUniverse", () -> stats.byYearAndUniverse()).toCompletableFuture(),
+                trace.span("topPowers", () -> stats.topPowers(5)).toCompletableFuture(),
         };
         return CompletableFuture.allOf(
                 completableFutures
@@ -91,8 +155,8 @@ public class HomeController extends Controller {
             List<ItemCount> countByUniverse = (List<ItemCount>) collect.get(0);
             List<YearAndUniverseStat> yearAndUniverseStats = (List<YearAndUniverseStat>) collect.get(1);
             List<ItemCount> topPowers = (List<ItemCount>) collect.get(2);
-            return ok(views.html.stats.render(request, countByUniverse, yearAndUniverseStats, topPowers));
-        });
+            return tracer.withRequestId(ok(views.html.stats.render(request, countByUniverse, yearAndUniverseStats, topPowers)), trace);
+        }).whenComplete((result, e) -> tracer.finish(trace));
 
     }
 
@@ -0,0 +1,26 @@
+package controllers;
+
+import metrics.Metrics;
+import play.mvc.Controller;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+
+/**
+ * Exposes the metrics of this node for Prometheus to scrape.
+ */
+public class MetricsController extends Controller {
+
+    private static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final Metrics metrics;
+
+    @Inject
+    public MetricsController(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Result metrics() {
+        return ok(metrics.prometheus()).as(PROMETHEUS_CONTENT_TYPE);
+    }
+}
@@ -0,0 +1,24 @@
+package env;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+public class CacheConfiguration {
+
+    public final int maxSize;
+    public final Duration ttl;
+    public final Duration negativeTtl;
+
+    public CacheConfiguration(int maxSize, Duration ttl, Duration negativeTtl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+    }
+
+    public CacheConfiguration(Config cacheConfig) {
+        this(cacheConfig.getInt("maxSize"),
+                cacheConfig.getDuration("ttl"),
+                cacheConfig.hasPath("negativeTtl") ? cacheConfig.getDuration("negativeTtl") : cacheConfig.getDuration("ttl"));
+    }
+}
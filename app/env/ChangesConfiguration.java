@@ -0,0 +1,25 @@
+package env;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+public class ChangesConfiguration {
+
+    public final boolean enabled;
+    public final boolean reindex;
+    public final Duration debounce;
+    public final Duration retryBackoff;
+
+    public ChangesConfiguration(boolean enabled, boolean reindex, Duration debounce, Duration retryBackoff) {
+        this.enabled = enabled;
+        this.reindex = reindex;
+        this.debounce = debounce;
+        this.retryBackoff = retryBackoff;
+    }
+
+    public ChangesConfiguration(Config changesConfig) {
+        this(changesConfig.getBoolean("enabled"), changesConfig.getBoolean("reindex"), changesConfig.getDuration("debounce"),
+                changesConfig.getDuration("retryBackoff"));
+    }
+}
@@ -7,14 +7,19 @@ public class ElasticConfiguration {
     public final String uri;
     public final String user;
     public final String password;
+    public final boolean pointInTime;
+    public final String pointInTimeKeepAlive;
 
-    public ElasticConfiguration(String uri, String user, String password) {
+    public ElasticConfiguration(String uri, String user, String password, boolean pointInTime, String pointInTimeKeepAlive) {
         this.uri = uri;
         this.user = user;
         this.password = password;
+        this.pointInTime = pointInTime;
+        this.pointInTimeKeepAlive = pointInTimeKeepAlive;
     }
 
     public ElasticConfiguration(Config elasticConfig) {
-        this(elasticConfig.getString("host"), elasticConfig.getString("port"), elasticConfig.getString("password"));
+        this(elasticConfig.getString("host"), elasticConfig.getString("port"), elasticConfig.getString("password"),
+                elasticConfig.getBoolean("pointInTime"), elasticConfig.getString("pointInTimeKeepAlive"));
     }
 }
@@ -0,0 +1,25 @@
+package env;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+public class ImporterConfiguration {
+
+    public final int batchSize;
+    public final int parallelism;
+    public final int maxInFlight;
+    public final Duration reportInterval;
+
+    public ImporterConfiguration(int batchSize, int parallelism, int maxInFlight, Duration reportInterval) {
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.maxInFlight = maxInFlight;
+        this.reportInterval = reportInterval;
+    }
+
+    public ImporterConfiguration(Config importerConfig) {
+        this(importerConfig.getInt("batchSize"), importerConfig.getInt("parallelism"), importerConfig.getInt("maxInFlight"),
+                importerConfig.getDuration("reportInterval"));
+    }
+}
@@ -11,10 +11,38 @@ public class MarvelHeroesConfiguration {
 
     public final ElasticConfiguration elasticConfiguration;
     public final RedisConfiguration redisConfiguration;
+    public final MongoConfiguration mongoConfiguration;
+    public final CacheConfiguration heroCacheConfiguration;
+    public final CacheConfiguration statItemCacheConfiguration;
+    public final CacheConfiguration widgetCacheConfiguration;
+    public final CacheConfiguration searchCacheConfiguration;
+    public final StatsConfiguration statsConfiguration;
+    public final VisitsConfiguration visitsConfiguration;
+    public final SuggestConfiguration suggestConfiguration;
+    public final SearchConfiguration searchConfiguration;
+    public final ReindexConfiguration reindexConfiguration;
+    public final ImporterConfiguration importerConfiguration;
+    public final ChangesConfiguration changesConfiguration;
+    public final TracingConfiguration tracingConfiguration;
+    public final RepositoryLogConfiguration repositoryLogConfiguration;
 
     @Inject
     public MarvelHeroesConfiguration(Config config, Environment environment) {
         this.elasticConfiguration = new ElasticConfiguration(config.getConfig("elastic"));
         this.redisConfiguration = new RedisConfiguration(config.getConfig("redis"));
+        this.mongoConfiguration = new MongoConfiguration(config.getConfig("mongodb"));
+        this.heroCacheConfiguration = new CacheConfiguration(config.getConfig("cache.heroes"));
+        this.statItemCacheConfiguration = new CacheConfiguration(config.getConfig("cache.statItems"));
+        this.widgetCacheConfiguration = new CacheConfiguration(config.getConfig("cache.widgets"));
+        this.searchCacheConfiguration = new CacheConfiguration(config.getConfig("cache.searches"));
+        this.statsConfiguration = new StatsConfiguration(config.getConfig("stats"));
+        this.visitsConfiguration = new VisitsConfiguration(config.getConfig("visits"));
+        this.suggestConfiguration = new SuggestConfiguration(config.getConfig("suggest"));
+        this.searchConfiguration = new SearchConfiguration(config.getConfig("search"));
+        this.reindexConfiguration = new ReindexConfiguration(config.getConfig("reindex"));
+        this.importerConfiguration = new ImporterConfiguration(config.getConfig("importer"));
+        this.changesConfiguration = new ChangesConfiguration(config.getConfig("changes"));
+        this.tracingConfiguration = new TracingConfiguration(config.getConfig("tracing"));
+        this.repositoryLogConfiguration = new RepositoryLogConfiguration(config.getConfig("repositoryLogs"));
     }
 }
@@ -0,0 +1,20 @@
+package env;
+
+import com.typesafe.config.Config;
+
+public class MongoConfiguration {
+
+    public final String host;
+    public final String database;
+    public final int batchSize;
+
+    public MongoConfiguration(String host, String database, int batchSize) {
+        this.host = host;
+        this.database = database;
+        this.batchSize = batchSize;
+    }
+
+    public MongoConfiguration(Config mongoConfig) {
+        this(mongoConfig.getString("host"), mongoConfig.getString("database"), mongoConfig.getInt("batchSize"));
+    }
+}
@@ -7,14 +7,16 @@ public class RedisConfiguration {
     public final String host;
     public final int port;
     public final String password;
+    public final boolean compactMembers;
 
-    public RedisConfiguration(String host, int port, String password) {
+    public RedisConfiguration(String host, int port, String password, boolean compactMembers) {
         this.host = host;
         this.port = port;
         this.password = password;
+        this.compactMembers = compactMembers;
     }
 
     public RedisConfiguration(Config redisConfig) {
-        this(redisConfig.getString("host"), redisConfig.getInt("port"), redisConfig.getString("password"));
+        this(redisConfig.getString("host"), redisConfig.getInt("port"), redisConfig.getString("password"), redisConfig.getBoolean("compactMembers"));
     }
 }
@@ -0,0 +1,32 @@
+package env;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+public class ReindexConfiguration {
+
+    public final String alias;
+    public final int batchSize;
+    public final int parallelism;
+    public final int maxRetries;
+    public final Duration retryBackoff;
+    public final Duration lockTtl;
+    public final String adminToken;
+
+    public ReindexConfiguration(String alias, int batchSize, int parallelism, int maxRetries, Duration retryBackoff, Duration lockTtl, String adminToken) {
+        this.alias = alias;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.maxRetries = maxRetries;
+        this.retryBackoff = retryBackoff;
+        this.lockTtl = lockTtl;
+        this.adminToken = adminToken;
+    }
+
+    public ReindexConfiguration(Config reindexConfig) {
+        this(reindexConfig.getString("alias"), reindexConfig.getInt("batchSize"), reindexConfig.getInt("parallelism"),
+                reindexConfig.getInt("maxRetries"), reindexConfig.getDuration("retryBackoff"), reindexConfig.getDuration("lockTtl"),
+                reindexConfig.getString("adminToken"));
+    }
+}
@@ -0,0 +1,23 @@
+package env;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+public class RepositoryLogConfiguration {
+
+    public final String accessLog;
+    public final int sampledPerSecond;
+    public final Duration slowCallThreshold;
+
+    public RepositoryLogConfiguration(String accessLog, int sampledPerSecond, Duration slowCallThreshold) {
+        this.accessLog = accessLog;
+        this.sampledPerSecond = sampledPerSecond;
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    public RepositoryLogConfiguration(Config repositoryLogConfig) {
+        this(repositoryLogConfig.getString("accessLog"), repositoryLogConfig.getInt("sampledPerSecond"),
+                repositoryLogConfig.getDuration("slowCallThreshold"));
+    }
+}
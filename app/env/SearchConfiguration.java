@@ -0,0 +1,24 @@
+package env;
+
+import com.typesafe.config.Config;
+
+import java.util.Locale;
+
+public class SearchConfiguration {
+
+    public enum Engine {
+        ELASTICSEARCH,
+        /** In-process index built from MongoDB at startup */
+        EMBEDDED
+    }
+
+    public final Engine engine;
+
+    public SearchConfiguration(Engine engine) {
+        this.engine = engine;
+    }
+
+    public SearchConfiguration(Config searchConfig) {
+        this(Engine.valueOf(searchConfig.getString("engine").toUpperCase(Locale.ROOT)));
+    }
+}
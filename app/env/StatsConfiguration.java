@@ -0,0 +1,20 @@
+package env;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+public class StatsConfiguration {
+
+    public final Duration refreshInterval;
+    public final int topPowers;
+
+    public StatsConfiguration(Duration refreshInterval, int topPowers) {
+        this.refreshInterval = refreshInterval;
+        this.topPowers = topPowers;
+    }
+
+    public StatsConfiguration(Config statsConfig) {
+        this(statsConfig.getDuration("refreshInterval"), statsConfig.getInt("topPowers"));
+    }
+}
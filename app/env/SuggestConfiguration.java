@@ -0,0 +1,16 @@
+package env;
+
+import com.typesafe.config.Config;
+
+public class SuggestConfiguration {
+
+    public final boolean inProcess;
+
+    public SuggestConfiguration(boolean inProcess) {
+        this.inProcess = inProcess;
+    }
+
+    public SuggestConfiguration(Config suggestConfig) {
+        this(suggestConfig.getBoolean("inProcess"));
+    }
+}
@@ -0,0 +1,29 @@
+package env;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+
+public class TracingConfiguration {
+
+    public final boolean enabled;
+    public final String exporter;
+    public final String endpoint;
+    public final int batchSize;
+    public final int maxQueued;
+    public final Duration flushInterval;
+
+    public TracingConfiguration(boolean enabled, String exporter, String endpoint, int batchSize, int maxQueued, Duration flushInterval) {
+        this.enabled = enabled;
+        this.exporter = exporter;
+        this.endpoint = endpoint;
+        this.batchSize = batchSize;
+        this.maxQueued = maxQueued;
+        this.flushInterval = flushInterval;
+    }
+
+    public TracingConfiguration(Config tracingConfig) {
+        this(tracingConfig.getBoolean("enabled"), tracingConfig.getString("exporter"), tracingConfig.getString("endpoint"),
+                tracingConfig.getInt("batchSize"), tracingConfig.getInt("maxQueued"), tracingConfig.getDuration("flushInterval"));
+    }
+}
@@ -0,0 +1,32 @@
+package env;
+
+import com.typesafe.config.Config;
+
+import java.time.Duration;
+import java.util.Locale;
+
+public class VisitsConfiguration {
+
+    public enum Mode {
+        /** One set of Redis commands per visit */
+        DIRECT,
+        /** Visits buffered and flushed in pipelined batches, on a size or time trigger */
+        BATCHED,
+        /** Visits counted in local striped counters and merged into Redis on a time trigger */
+        LOCAL
+    }
+
+    public final Mode mode;
+    public final Duration flushInterval;
+    public final int maxBatchSize;
+
+    public VisitsConfiguration(Mode mode, Duration flushInterval, int maxBatchSize) {
+        this.mode = mode;
+        this.flushInterval = flushInterval;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public VisitsConfiguration(Config visitsConfig) {
+        this(Mode.valueOf(visitsConfig.getString("mode").toUpperCase(Locale.ROOT)), visitsConfig.getDuration("flushInterval"), visitsConfig.getInt("maxBatchSize"));
+    }
+}
@@ -0,0 +1,105 @@
+package importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits RFC 4180 CSV into records, honouring line breaks inside quoted fields. Records are returned raw so that
+ * splitting them into fields, the costlier part, can run on other threads with {@link #fields(String)}.
+ */
+public class CsvRecordReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Returns the next record without its line terminator, or {@code null} at the end of the input.
+     */
+    public String readRecord() throws IOException {
+        final StringBuilder record = new StringBuilder(256);
+        boolean quoted = false;
+        while (true) {
+            if (position == limit) {
+                limit = reader.read(buffer, 0, BUFFER_SIZE);
+                position = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    return record.length() == 0 ? null : record.toString();
+                }
+            }
+            final char c = buffer[position++];
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && (c == '\n' || c == '\r')) {
+                if (c == '\r' && peek() == '\n') {
+                    position++;
+                }
+                if (record.length() == 0) {
+                    // Blank line
+                    continue;
+                }
+                return record.toString();
+            }
+            record.append(c);
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    /**
+     * Splits a record into its fields, unquoting them.
+     */
+    public static List<String> fields(String record) {
+        final List<String> fields = new ArrayList<>();
+        final StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < record.length(); i++) {
+            final char c = record.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < record.length() && record.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
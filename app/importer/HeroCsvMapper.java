@@ -0,0 +1,81 @@
+package importer;
+
+import models.Hero;
+import models.HeroAppearance;
+import models.HeroIdentity;
+import models.HeroSkills;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Maps rows of {@code all-heroes.csv} to heroes, shaped like those inserted by {@code scripts/import-mongo.js}:
+ * only powers are split, other list fields are kept as a single value.
+ */
+public class HeroCsvMapper {
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    public HeroCsvMapper(List<String> header) {
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim(), i);
+        }
+        if (!columns.containsKey("id")) {
+            throw new IllegalArgumentException("CSV header has no id column: " + header);
+        }
+    }
+
+    public Hero toHero(List<String> row) {
+        final HeroAppearance appearance = new HeroAppearance(
+                optional(row, "gender"), optional(row, "type"), optional(row, "race"),
+                optionalNumber(row, "height").map(Double::floatValue), optionalNumber(row, "weight").map(Double::floatValue),
+                optional(row, "eyeColor"), optional(row, "hairColor"));
+        final HeroIdentity identity = new HeroIdentity(
+                single(row, "secretIdentities"), optional(row, "birthPlace"), optional(row, "occupation"), single(row, "aliases"),
+                optional(row, "alignment"), optional(row, "firstAppearance"), optionalNumber(row, "yearAppearance").map(Double::intValue),
+                get(row, "universe"));
+        final HeroSkills skills = new HeroSkills(
+                skill(row, "intelligence"), skill(row, "strength"), skill(row, "speed"),
+                skill(row, "durability"), skill(row, "combat"), skill(row, "power"));
+        return new Hero(get(row, "id"), get(row, "name"), get(row, "imageUrl"), get(row, "backgroundImageUrl"),
+                optional(row, "externalLink"), optional(row, "description"), identity, appearance,
+                single(row, "teams"), split(row, "powers"), single(row, "partners"), skills, single(row, "creators"));
+    }
+
+    private String get(List<String> row, String column) {
+        final Integer index = columns.get(column);
+        return index == null || index >= row.size() ? "" : row.get(index);
+    }
+
+    private Optional<String> optional(List<String> row, String column) {
+        final String value = get(row, column);
+        return value.isEmpty() ? Optional.empty() : Optional.of(value);
+    }
+
+    private Optional<Double> optionalNumber(List<String> row, String column) {
+        try {
+            return optional(row, column).map(value -> Double.parseDouble(value.trim()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    private int skill(List<String> row, String column) {
+        return optionalNumber(row, column).map(Double::intValue).orElse(0);
+    }
+
+    private List<String> single(List<String> row, String column) {
+        return optional(row, column).map(Collections::singletonList).orElse(Collections.emptyList());
+    }
+
+    private List<String> split(List<String> row, String column) {
+        return optional(row, column)
+                .map(value -> Arrays.stream(value.split(",")).map(String::trim).filter(s -> !s.isEmpty()).collect(Collectors.toList()))
+                .orElse(Collections.emptyList());
+    }
+}
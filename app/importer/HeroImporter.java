@@ -0,0 +1,153 @@
+package importer;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import akka.stream.ActorMaterializer;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import akka.stream.javadsl.Source;
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.typesafe.config.ConfigFactory;
+import env.ImporterConfiguration;
+import env.MarvelHeroesConfiguration;
+import metrics.Metrics;
+import models.Hero;
+import play.Environment;
+import play.Logger;
+import providers.MongoDatabaseProvider;
+import repository.MongoDBRepository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Streams a heroes CSV file into MongoDB in constant memory: records are read sequentially, parsed in parallel
+ * batches and written with unordered bulk writes, a bounded number of them being in flight at once.
+ * <p>
+ * Run with {@code sbt "runMain importer.HeroImporter scripts/all-heroes.csv"}.
+ */
+public class HeroImporter {
+
+    private static final Logger.ALogger LOGGER = Logger.of("HeroImporter");
+
+    private final MongoDBRepository mongoDBRepository;
+    private final ImporterConfiguration importerConfiguration;
+    private final ActorSystem actorSystem;
+    private final Materializer materializer;
+
+    public HeroImporter(MongoDBRepository mongoDBRepository, ImporterConfiguration importerConfiguration, ActorSystem actorSystem, Materializer materializer) {
+        this.mongoDBRepository = mongoDBRepository;
+        this.importerConfiguration = importerConfiguration;
+        this.actorSystem = actorSystem;
+        this.materializer = materializer;
+    }
+
+    /**
+     * Imports every row of {@code csv} and returns how many heroes were inserted.
+     */
+    public CompletionStage<Long> run(Path csv) {
+        final HeroCsvMapper mapper;
+        try (CsvRecordReader reader = open(csv)) {
+            mapper = new HeroCsvMapper(CsvRecordReader.fields(Optional.ofNullable(reader.readRecord()).orElse("")));
+        } catch (IOException | IllegalArgumentException e) {
+            return failed(e);
+        }
+
+        final long start = System.nanoTime();
+        final AtomicLong rows = new AtomicLong();
+        final AtomicLong inserted = new AtomicLong();
+        final Cancellable report = actorSystem.scheduler().schedule(importerConfiguration.reportInterval, importerConfiguration.reportInterval,
+                new Runnable() {
+                    private long lastRows;
+                    private long lastTime = start;
+
+                    @Override
+                    public void run() {
+                        final long now = System.nanoTime();
+                        final long currentRows = rows.get();
+                        LOGGER.info(currentRows + " rows imported (" + rate(currentRows - lastRows, now - lastTime) + " rows/s)");
+                        lastRows = currentRows;
+                        lastTime = now;
+                    }
+                }, actorSystem.dispatcher());
+
+        return Source.unfoldResource(() -> skipHeader(open(csv)), reader -> Optional.ofNullable(reader.readRecord()), CsvRecordReader::close)
+                .grouped(importerConfiguration.batchSize)
+                .mapAsync(importerConfiguration.parallelism, records -> CompletableFuture.supplyAsync(() -> parse(mapper, records), actorSystem.dispatcher()))
+                .mapAsyncUnordered(importerConfiguration.maxInFlight, heroes -> mongoDBRepository.insertHeroes(heroes)
+                        .thenApply(count -> {
+                            rows.addAndGet(heroes.size());
+                            return inserted.addAndGet(count);
+                        }))
+                .runWith(Sink.ignore(), materializer)
+                .thenApply(done -> inserted.get())
+                .whenComplete((count, e) -> {
+                    report.cancel();
+                    if (e != null) {
+                        LOGGER.error("Error while importing heroes: " + e.getMessage(), e);
+                    } else {
+                        final long elapsed = System.nanoTime() - start;
+                        LOGGER.info(count + " of " + rows.get() + " heroes inserted in " + elapsed / 1_000_000 + "ms (" + rate(rows.get(), elapsed) + " rows/s)");
+                    }
+                });
+    }
+
+    private static List<Hero> parse(HeroCsvMapper mapper, List<String> records) {
+        return records.stream()
+                .map(CsvRecordReader::fields)
+                .map(mapper::toHero)
+                .collect(Collectors.toList());
+    }
+
+    private static CsvRecordReader open(Path csv) throws IOException {
+        return new CsvRecordReader(Files.newBufferedReader(csv, StandardCharsets.UTF_8));
+    }
+
+    private static CsvRecordReader skipHeader(CsvRecordReader reader) {
+        try {
+            reader.readRecord();
+            return reader;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long rate(long rows, long nanos) {
+        return nanos <= 0 ? rows : rows * 1_000_000_000L / nanos;
+    }
+
+    private static <T> CompletionStage<T> failed(Throwable e) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    public static void main(String[] args) {
+        final Path csv = Paths.get(args.length > 0 ? args[0] : "scripts/all-heroes.csv");
+        final MarvelHeroesConfiguration configuration = new MarvelHeroesConfiguration(ConfigFactory.load(), Environment.simple());
+        final ActorSystem actorSystem = ActorSystem.create("hero-importer");
+        final MongoClient client = MongoClients.create(new ConnectionString(configuration.mongoConfiguration.host));
+        final MongoDBRepository mongoDBRepository = new MongoDBRepository(MongoDatabaseProvider.database(client, configuration.mongoConfiguration), configuration, new Metrics(configuration));
+
+        final boolean succeeded = new HeroImporter(mongoDBRepository, configuration.importerConfiguration, actorSystem, ActorMaterializer.create(actorSystem))
+                .run(csv)
+                .handle((count, e) -> e == null)
+                .toCompletableFuture()
+                .join();
+        client.close();
+        actorSystem.terminate();
+        System.exit(succeeded ? 0 : 1);
+    }
+}
@@ -0,0 +1,115 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size latency histogram with log-linear buckets, HdrHistogram style: each power of two between
+ * {@link #MIN_NANOS} and {@link #MAX_NANOS} is split into {@link #SUB_BUCKETS} equal buckets, so the relative error
+ * stays under 25% over the whole range. The range is kept to what repository calls actually take, each bucket being
+ * a Prometheus series per method. Recording is a few bit operations and two atomic increments, with no allocation
+ * and no lock.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 2;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = 15;
+    private static final int MAX_EXPONENT = 34;
+    /** About 33 microseconds, faster calls all land in the first bucket. */
+    static final long MIN_NANOS = 1L << MIN_EXPONENT;
+    /** About 17s, slower calls are only counted in the {@code +Inf} bucket. */
+    static final long MAX_NANOS = 1L << MAX_EXPONENT;
+    static final int BUCKETS = (MAX_EXPONENT - MIN_EXPONENT) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS + 1);
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void record(long nanos) {
+        final long value = Math.max(0, nanos);
+        counts.incrementAndGet(index(value));
+        sumNanos.add(value);
+    }
+
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int index(long nanos) {
+        if (nanos >= MAX_NANOS) {
+            return BUCKETS;
+        }
+        final long value = Math.max(nanos, MIN_NANOS);
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Exclusive upper bound of bucket {@code index}, in nanoseconds.
+     */
+    static long upperBound(int index) {
+        final int exponent = MIN_EXPONENT + index / SUB_BUCKETS;
+        final long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (1L << exponent) + (index % SUB_BUCKETS + 1) * width;
+    }
+
+    /**
+     * Copies the bucket counts, the last one being the overflow bucket. Calls recorded meanwhile may or may not be
+     * included.
+     */
+    public Snapshot snapshot() {
+        final long[] buckets = new long[BUCKETS + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = counts.get(i);
+        }
+        return new Snapshot(buckets, sumNanos.sum());
+    }
+
+    public static final class Snapshot {
+        private final long[] buckets;
+        private final long count;
+        public final long sumNanos;
+
+        Snapshot(long[] buckets, long sumNanos) {
+            this.buckets = buckets;
+            this.sumNanos = sumNanos;
+            long count = 0;
+            for (long bucket : buckets) {
+                count += bucket;
+            }
+            this.count = count;
+        }
+
+        public long count() {
+            return count;
+        }
+
+        public int buckets() {
+            return BUCKETS;
+        }
+
+        public long bucketCount(int index) {
+            return buckets[index];
+        }
+
+        public long bucketUpperBoundNanos(int index) {
+            return upperBound(index);
+        }
+
+        /**
+         * Upper bound of the bucket holding the given percentile, {@link Long#MAX_VALUE} if it overflowed.
+         */
+        public long percentileNanos(double percentile) {
+            final long rank = (long) Math.ceil(percentile / 100 * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i];
+                if (seen >= rank && seen > 0) {
+                    return upperBound(i);
+                }
+            }
+            return count == 0 ? 0 : Long.MAX_VALUE;
+        }
+    }
+}
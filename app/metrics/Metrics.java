@@ -0,0 +1,106 @@
+package metrics;
+
+import cache.AsyncCache;
+import env.MarvelHeroesConfiguration;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Registry of the repository and cache metrics of this node, rendered in the Prometheus text exposition format.
+ * Throughput is left to Prometheus, as the rate of the {@code _count} series.
+ */
+@Singleton
+public class Metrics {
+
+    private final Map<String, RepositoryMetrics> repositories = new ConcurrentHashMap<>();
+    private final List<AsyncCache<?, ?>> caches = new CopyOnWriteArrayList<>();
+    private final long slowCallNanos;
+
+    @Inject
+    public Metrics(MarvelHeroesConfiguration configuration) {
+        this(configuration.repositoryLogConfiguration.slowCallThreshold);
+    }
+
+    /**
+     * @param slowCallThreshold repository calls taking longer are logged, none if zero
+     */
+    public Metrics(Duration slowCallThreshold) {
+        this.slowCallNanos = slowCallThreshold.isZero() ? Long.MAX_VALUE : slowCallThreshold.toNanos();
+    }
+
+    public RepositoryMetrics repository(String repository) {
+        return repositories.computeIfAbsent(repository, r -> new RepositoryMetrics(r, slowCallNanos));
+    }
+
+    public void registerCache(AsyncCache<?, ?> cache) {
+        caches.add(cache);
+    }
+
+    public String prometheus() {
+        final StringBuilder text = new StringBuilder(16 * 1024);
+        final Map<String, RepositoryMetrics> sortedRepositories = new TreeMap<>(repositories);
+
+        header(text, "repository_call_duration_seconds", "histogram", "Time until repository calls complete, failed ones included.");
+        sortedRepositories.values().forEach(repository -> new TreeMap<>(repository.latencies()).forEach((method, latency) -> {
+            final String labels = "repository=\"" + repository.repository() + "\",method=\"" + method + "\"";
+            final LatencyHistogram.Snapshot snapshot = latency.snapshot();
+            long cumulative = 0;
+            for (int i = 0; i < snapshot.buckets(); i++) {
+                cumulative += snapshot.bucketCount(i);
+                sample(text, "repository_call_duration_seconds_bucket", labels + ",le=\"" + seconds(snapshot.bucketUpperBoundNanos(i)) + "\"", cumulative);
+            }
+            sample(text, "repository_call_duration_seconds_bucket", labels + ",le=\"+Inf\"", snapshot.count());
+            sample(text, "repository_call_duration_seconds_sum", labels, seconds(snapshot.sumNanos));
+            sample(text, "repository_call_duration_seconds_count", labels, snapshot.count());
+        }));
+
+        header(text, "repository_swallowed_errors_total", "counter", "Repository errors logged and replaced with a fallback value.");
+        sortedRepositories.values().forEach(repository ->
+                sample(text, "repository_swallowed_errors_total", "repository=\"" + repository.repository() + "\"", repository.swallowedErrors()));
+
+        header(text, "cache_requests_total", "counter", "Cache lookups by result.");
+        caches.forEach(cache -> {
+            sample(text, "cache_requests_total", "cache=\"" + cache.name() + "\",result=\"hit\"", cache.hitCount());
+            sample(text, "cache_requests_total", "cache=\"" + cache.name() + "\",result=\"miss\"", cache.missCount());
+        });
+        header(text, "cache_hit_ratio", "gauge", "Hits over lookups since startup.");
+        caches.forEach(cache -> {
+            final long lookups = cache.hitCount() + cache.missCount();
+            sample(text, "cache_hit_ratio", "cache=\"" + cache.name() + "\"", lookups == 0 ? "NaN" : format((double) cache.hitCount() / lookups));
+        });
+        header(text, "cache_loads_total", "counter", "Calls to the loader, concurrent misses sharing one.");
+        caches.forEach(cache -> sample(text, "cache_loads_total", "cache=\"" + cache.name() + "\"", cache.loadCount()));
+        header(text, "cache_size", "gauge", "Entries currently cached.");
+        caches.forEach(cache -> sample(text, "cache_size", "cache=\"" + cache.name() + "\"", cache.size()));
+        return text.toString();
+    }
+
+    private static void header(StringBuilder text, String name, String type, String help) {
+        text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, String labels, long value) {
+        text.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static void sample(StringBuilder text, String name, String labels, String value) {
+        text.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return format(nanos / 1e9);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.9g", value).replaceFirst("\\.?0+(e|$)", "$1");
+    }
+}
@@ -0,0 +1,81 @@
+package metrics;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import play.Logger;
+import play.libs.Json;
+
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Latency of each method of a repository, and the count of errors it logged and replaced with a fallback value.
+ * Calls slower than the threshold are also logged, as one JSON line on the {@code SlowCalls} logger.
+ */
+public final class RepositoryMetrics {
+
+    private static final Logger.ALogger SLOW_CALLS = Logger.of("SlowCalls");
+
+    private final String repository;
+    private final long slowCallNanos;
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final LongAdder swallowedErrors = new LongAdder();
+
+    RepositoryMetrics(String repository, long slowCallNanos) {
+        this.repository = repository;
+        this.slowCallNanos = slowCallNanos;
+    }
+
+    public String repository() {
+        return repository;
+    }
+
+    /**
+     * Runs {@code call} and records the time until the returned stage completes, successfully or not.
+     */
+    public <T> CompletionStage<T> time(String method, Supplier<? extends CompletionStage<T>> call) {
+        final LatencyHistogram latency = latency(method);
+        final long start = System.nanoTime();
+        final CompletionStage<T> stage;
+        try {
+            stage = call.get();
+        } catch (RuntimeException e) {
+            record(method, latency, start, true);
+            throw e;
+        }
+        return stage.whenComplete((value, e) -> record(method, latency, start, e != null));
+    }
+
+    private void record(String method, LatencyHistogram latency, long start, boolean failed) {
+        final long nanos = System.nanoTime() - start;
+        latency.record(nanos);
+        if (nanos >= slowCallNanos) {
+            final ObjectNode slowCall = Json.newObject();
+            slowCall.put("repository", repository);
+            slowCall.put("method", method);
+            slowCall.put("durationMillis", nanos / 1_000_000L);
+            slowCall.put("failed", failed);
+            SLOW_CALLS.warn(Json.stringify(slowCall));
+        }
+    }
+
+    public LatencyHistogram latency(String method) {
+        // get first: computeIfAbsent locks the bin even when the histogram already exists
+        final LatencyHistogram latency = latencies.get(method);
+        return latency != null ? latency : latencies.computeIfAbsent(method, m -> new LatencyHistogram());
+    }
+
+    public void swallowedError() {
+        swallowedErrors.increment();
+    }
+
+    Map<String, LatencyHistogram> latencies() {
+        return latencies;
+    }
+
+    long swallowedErrors() {
+        return swallowedErrors.sum();
+    }
+}
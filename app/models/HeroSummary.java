@@ -0,0 +1,20 @@
+package models;
+
+public class HeroSummary {
+
+    public final String id;
+    public final String name;
+    public final String imageUrl;
+    public final String universe;
+
+    public HeroSummary(String id, String name, String imageUrl, String universe) {
+        this.id = id;
+        this.name = name;
+        this.imageUrl = imageUrl;
+        this.universe = universe;
+    }
+
+    public static HeroSummary fromHero(Hero hero) {
+        return new HeroSummary(hero.id, hero.name, hero.imageUrl, hero.identity == null ? null : hero.identity.universe);
+    }
+}
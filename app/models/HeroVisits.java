@@ -0,0 +1,18 @@
+package models;
+
+public class HeroVisits {
+
+    public final StatItem statItem;
+    public final long count;
+    public final long lastVisitedAt;
+
+    public HeroVisits(StatItem statItem, long count, long lastVisitedAt) {
+        this.statItem = statItem;
+        this.count = count;
+        this.lastVisitedAt = lastVisitedAt;
+    }
+
+    public HeroVisits merge(HeroVisits other) {
+        return new HeroVisits(other.statItem, count + other.count, Math.max(lastVisitedAt, other.lastVisitedAt));
+    }
+}
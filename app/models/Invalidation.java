@@ -0,0 +1,73 @@
+package models;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Something to evict from the caches of every node, as sent over the invalidation bus.
+ */
+public class Invalidation {
+
+    public enum Kind {
+        /** One hero, identified by {@link #key} */
+        HERO,
+        ALL_HEROES,
+        SEARCHES
+    }
+
+    public final Kind kind;
+    public final String key;
+
+    private Invalidation(Kind kind, String key) {
+        this.kind = kind;
+        this.key = key;
+    }
+
+    public static Invalidation hero(String heroId) {
+        return new Invalidation(Kind.HERO, Objects.requireNonNull(heroId));
+    }
+
+    public static Invalidation allHeroes() {
+        return new Invalidation(Kind.ALL_HEROES, "");
+    }
+
+    public static Invalidation searches() {
+        return new Invalidation(Kind.SEARCHES, "");
+    }
+
+    /**
+     * Encodes this invalidation as sent by node {@code nodeId}.
+     */
+    public String encode(String nodeId) {
+        return nodeId + " " + kind + " " + key;
+    }
+
+    /**
+     * Returns the sender and the invalidation of an encoded message, or empty if it cannot be read.
+     */
+    public static Optional<Sent> decode(String message) {
+        final String[] parts = message.split(" ", 3);
+        if (parts.length < 3) {
+            return Optional.empty();
+        }
+        try {
+            final Kind kind = Kind.valueOf(parts[1]);
+            if (kind == Kind.HERO && parts[2].isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Sent(parts[0], new Invalidation(kind, parts[2])));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public static class Sent {
+        public final String nodeId;
+        public final Invalidation invalidation;
+
+        Sent(String nodeId, Invalidation invalidation) {
+            this.nodeId = nodeId;
+            this.invalidation = invalidation;
+        }
+    }
+}
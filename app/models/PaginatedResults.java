@@ -2,9 +2,11 @@ package models;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import play.libs.Json;
 
 import java.util.List;
+import java.util.Optional;
 
 public class PaginatedResults<T> {
 
@@ -12,21 +14,28 @@ public class PaginatedResults<T> {
     public final int page;
     public final List<T> results;
     public final int totalPage;
+    public final Optional<String> cursor;
 
     public PaginatedResults(int total, int page, int totalPage, List<T> results) {
+        this(total, page, totalPage, results, Optional.empty());
+    }
+
+    public PaginatedResults(int total, int page, int totalPage, List<T> results, Optional<String> cursor) {
         this.total = total;
         this.page = page;
         this.totalPage = totalPage;
         this.results = results;
+        this.cursor = cursor;
     }
 
     public JsonNode toJson() {
         ObjectMapper mapper = new ObjectMapper();
         JsonNode resultsAsTree = mapper.valueToTree(results);
-        return Json.newObject()
+        ObjectNode json = Json.newObject()
                 .put("total", total)
                 .put("totalPage", totalPage)
-                .put("page", page)
-                .set("results", resultsAsTree);
+                .put("page", page);
+        cursor.ifPresent(c -> json.put("cursor", c));
+        return json.set("results", resultsAsTree);
     }
 }
@@ -0,0 +1,30 @@
+package models;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import play.libs.Json;
+
+public class ReindexReport {
+
+    public final String index;
+    public final long indexed;
+    public final long failed;
+    public final boolean swapped;
+    public final long durationMillis;
+
+    public ReindexReport(String index, long indexed, long failed, boolean swapped, long durationMillis) {
+        this.index = index;
+        this.indexed = indexed;
+        this.failed = failed;
+        this.swapped = swapped;
+        this.durationMillis = durationMillis;
+    }
+
+    public JsonNode toJson() {
+        return Json.newObject()
+                .put("index", index)
+                .put("indexed", indexed)
+                .put("failed", failed)
+                .put("swapped", swapped)
+                .put("durationMillis", durationMillis);
+    }
+}
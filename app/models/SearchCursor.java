@@ -0,0 +1,48 @@
+package models;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import play.libs.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Position in a search_after walk through search results, handed to clients as an opaque string.
+ */
+public class SearchCursor {
+
+    public final ArrayNode searchAfter;
+    public final Optional<String> pointInTimeId;
+
+    public SearchCursor(ArrayNode searchAfter, Optional<String> pointInTimeId) {
+        this.searchAfter = searchAfter;
+        this.pointInTimeId = pointInTimeId;
+    }
+
+    public String encode() {
+        final ObjectNode json = Json.newObject();
+        json.set("after", searchAfter);
+        pointInTimeId.ifPresent(id -> json.put("pit", id));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Json.stringify(json).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor returned by {@link #encode()}, or returns empty if it is malformed.
+     */
+    public static Optional<SearchCursor> decode(String cursor) {
+        try {
+            final JsonNode json = Json.parse(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+            final JsonNode after = json.get("after");
+            if (after == null || !after.isArray()) {
+                return Optional.empty();
+            }
+            final JsonNode pit = json.get("pit");
+            return Optional.of(new SearchCursor((ArrayNode) after, pit == null ? Optional.empty() : Optional.of(pit.asText())));
+        } catch (RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -43,4 +43,8 @@ public class StatItem {
         return new StatItem(hero.id, hero.name, hero.imageUrl, "hero");
     }
 
+    public static StatItem fromHeroSummary(HeroSummary hero) {
+        return new StatItem(hero.id, hero.name, hero.imageUrl, "hero");
+    }
+
 }
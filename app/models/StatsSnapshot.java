@@ -0,0 +1,18 @@
+package models;
+
+import java.util.List;
+
+public class StatsSnapshot {
+
+    public final List<ItemCount> byUniverse;
+    public final List<YearAndUniverseStat> byYearAndUniverse;
+    public final List<ItemCount> topPowers;
+    public final long computedAt;
+
+    public StatsSnapshot(List<ItemCount> byUniverse, List<YearAndUniverseStat> byYearAndUniverse, List<ItemCount> topPowers, long computedAt) {
+        this.byUniverse = byUniverse;
+        this.byYearAndUniverse = byYearAndUniverse;
+        this.topPowers = topPowers;
+        this.computedAt = computedAt;
+    }
+}
@@ -3,10 +3,12 @@ package modules;
 import com.google.inject.AbstractModule;
 import com.mongodb.reactivestreams.client.MongoDatabase;
 import providers.MongoDatabaseProvider;
+import services.HeroChangeListener;
 
 public class MongoDBModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(MongoDatabase.class).toProvider(MongoDatabaseProvider.class);
+        bind(HeroChangeListener.class).asEagerSingleton();
     }
 }
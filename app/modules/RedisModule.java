@@ -3,10 +3,13 @@ package modules;
 import com.google.inject.AbstractModule;
 import io.lettuce.core.RedisClient;
 import providers.RedisClientProvider;
+import services.Invalidations;
 
 public class RedisModule extends AbstractModule {
     @Override
     protected void configure() {
         bind(RedisClient.class).toProvider(RedisClientProvider.class);
+        // Eager, to apply the invalidations of other nodes from startup
+        bind(Invalidations.class).asEagerSingleton();
     }
 }
@@ -0,0 +1,13 @@
+package modules;
+
+import com.google.inject.AbstractModule;
+import search.EmbeddedHeroSearch;
+import search.HeroSuggester;
+
+public class SearchModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        bind(HeroSuggester.class).asEagerSingleton();
+        bind(EmbeddedHeroSearch.class).asEagerSingleton();
+    }
+}
@@ -0,0 +1,11 @@
+package modules;
+
+import com.google.inject.AbstractModule;
+import services.StatsSnapshots;
+
+public class StatsModule extends AbstractModule {
+    @Override
+    protected void configure() {
+        bind(StatsSnapshots.class).asEagerSingleton();
+    }
+}
@@ -1,26 +1,40 @@
 package providers;
 
+import codecs.HeroCodec;
+import codecs.HeroSummaryCodec;
+import codecs.ItemCountCodec;
+import codecs.YearAndUniverseStatCodec;
 import com.mongodb.ConnectionString;
 import com.mongodb.reactivestreams.client.MongoClient;
 import com.mongodb.reactivestreams.client.MongoClients;
 import com.mongodb.reactivestreams.client.MongoDatabase;
-import com.typesafe.config.Config;
+import env.MarvelHeroesConfiguration;
+import env.MongoConfiguration;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
 
 import javax.inject.Inject;
 import javax.inject.Provider;
 
 public class MongoDatabaseProvider implements Provider<MongoDatabase> {
 
-    private final Config mongoConfig;
+    private final MongoConfiguration mongoConfiguration;
 
     @Inject
-    public MongoDatabaseProvider(Config config) {
-        this.mongoConfig = config.getConfig("mongodb");
+    public MongoDatabaseProvider(MarvelHeroesConfiguration configuration) {
+        this.mongoConfiguration = configuration.mongoConfiguration;
     }
 
     @Override
     public MongoDatabase get() {
-        MongoClient client = MongoClients.create(new ConnectionString(mongoConfig.getString("host")));
-        return client.getDatabase(mongoConfig.getString("database"));
+        MongoClient client = MongoClients.create(new ConnectionString(mongoConfiguration.host));
+        return database(client, mongoConfiguration);
+    }
+
+    public static MongoDatabase database(MongoClient client, MongoConfiguration mongoConfiguration) {
+        CodecRegistry codecRegistry = CodecRegistries.fromRegistries(
+                MongoClients.getDefaultCodecRegistry(),
+                CodecRegistries.fromCodecs(new HeroCodec(), new HeroSummaryCodec(), new ItemCountCodec(), new YearAndUniverseStatCodec()));
+        return client.getDatabase(mongoConfiguration.database).withCodecRegistry(codecRegistry);
     }
 }
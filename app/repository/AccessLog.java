@@ -0,0 +1,66 @@
+package repository;
+
+import env.RepositoryLogConfiguration;
+import play.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One line per repository call, on the {@code RepositoryAccess.<repository>} logger. Messages are only formatted
+ * once let through: in sampled mode at most {@code sampledPerSecond} calls are logged per second, how many were left
+ * out being logged when the next second starts.
+ */
+final class AccessLog {
+
+    static final String ALL = "all";
+    static final String SAMPLED = "sampled";
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final Logger.ALogger logger;
+    private final boolean all;
+    private final boolean sampled;
+    private final int sampledPerSecond;
+    private final AtomicLong second = new AtomicLong(Long.MIN_VALUE);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    AccessLog(String repository, RepositoryLogConfiguration configuration) {
+        this.logger = Logger.of("RepositoryAccess." + repository);
+        this.all = ALL.equals(configuration.accessLog);
+        this.sampled = SAMPLED.equals(configuration.accessLog);
+        this.sampledPerSecond = configuration.sampledPerSecond;
+    }
+
+    void log(String message) {
+        if (enabled()) {
+            logger.info(message);
+        }
+    }
+
+    // Not varargs, so that calls left out allocate no array
+    void log(String format, Object arg) {
+        if (enabled()) {
+            logger.info(format, arg);
+        }
+    }
+
+    private boolean enabled() {
+        if (!all && !sampled) {
+            return false;
+        }
+        return logger.isInfoEnabled() && (all || sample(System.nanoTime()));
+    }
+
+    boolean sample(long nanoTime) {
+        final long now = nanoTime / NANOS_PER_SECOND;
+        final long current = second.get();
+        if (now != current && second.compareAndSet(current, now)) {
+            final int previousCalls = calls.getAndSet(0);
+            if (previousCalls > sampledPerSecond) {
+                logger.info("{} calls of the last sampled second not logged", previousCalls - sampledPerSecond);
+            }
+        }
+        return calls.incrementAndGet() <= sampledPerSecond;
+    }
+}
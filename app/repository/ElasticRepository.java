@@ -1,103 +1,219 @@
 package repository;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
 import env.ElasticConfiguration;
 import env.MarvelHeroesConfiguration;
+import metrics.Metrics;
+import metrics.RepositoryMetrics;
+import models.Hero;
 import models.PaginatedResults;
+import models.SearchCursor;
 import models.SearchedHero;
 import play.Logger;
-import play.libs.Json;
 import play.libs.ws.WSClient;
+import play.libs.ws.WSResponse;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Spliterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 @Singleton
 public class ElasticRepository {
 
     private static final Logger.ALogger LOGGER = Logger.of("ElasticRepository");
-    private static final String HEROES_SEARCH_PATH = "/heroes/_search";
+    private static final String BULK_PATH = "/_bulk";
+    private static final String ALIASES_PATH = "/_aliases";
 
     private final WSClient wsClient;
     private final ElasticConfiguration elasticConfiguration;
+    // Searches read the alias moved by services.HeroReindexer
+    private final String heroesSearchPath;
+    private final String heroesPitPath;
+    private final RepositoryMetrics metrics;
+    private final AccessLog accessLog;
 
     @Inject
-    public ElasticRepository(WSClient wsClient, MarvelHeroesConfiguration configuration) {
+    public ElasticRepository(WSClient wsClient, MarvelHeroesConfiguration configuration, Metrics metrics) {
         this.wsClient = wsClient;
         this.elasticConfiguration = configuration.elasticConfiguration;
+        this.heroesSearchPath = "/" + configuration.reindexConfiguration.alias + "/_search";
+        this.heroesPitPath = "/" + configuration.reindexConfiguration.alias + "/_pit";
+        this.metrics = metrics.repository("elasticsearch");
+        this.accessLog = new AccessLog("elasticsearch", configuration.repositoryLogConfiguration);
     }
 
+    /**
+     * Unlike the other calls, a failure is logged but not swallowed: the caller caches the results, and must not
+     * keep a failed search as an empty page.
+     */
     public CompletionStage<PaginatedResults<SearchedHero>> searchHeroes(String input, int size, int page) {
-        LOGGER.info("Search heroes");
-        return wsClient.url(elasticConfiguration.uri + HEROES_SEARCH_PATH)
-                .post(Json.parse(
-                                "{\n" +
-                                "  \"from\": " + size * (page - 1) + ",\n" +
-                                "  \"size\": " + size + ",\n" +
-                                "  \"query\": {\n" +
-                                "    \"query_string\": {\n" +
-                                "      \"fields\": [\n" +
-                                "        \"name^4\",\n" +
-                                "        \"aliases^3\",\n" +
-                                "        \"secretIdentities^3\",\n" +
-                                "        \"description^2\",\n" +
-                                "        \"partners\"\n" +
-                                "      ],\n" +
-                                "      \"query\": \"" + (input.isEmpty() ? input + "*" : input + "~") + "\"\n" +
-                                "    }\n" +
-                                "  }\n" +
-                                "}"))
+        accessLog.log("Search heroes");
+        return metrics.time("searchHeroes", () -> wsClient.url(elasticConfiguration.uri + heroesSearchPath)
+                .post(ElasticRequests.body(ElasticRequests.search(input, size * (page - 1), size)))
                 .thenApply(response -> {
-                    final JsonNode hits = response.asJson().get("hits");
-                    final List<SearchedHero> heroes = mapHeroesFromJson(response.asJson().get("hits"), "hits")
-                            .collect(Collectors.toList());
-                    final int total = hits.get("total").get("value").asInt();
-                    return new PaginatedResults<>(total, page, Math.max(1, (int) Math.ceil((double) total / (double) size)), heroes);
+                    final ElasticResponses.SearchPage searchPage = ElasticResponses.search(response.getBodyAsBytes().toArray());
+                    return new PaginatedResults<>(searchPage.total, page, totalPage(searchPage.total, size), searchPage.heroes);
                 })
-                .exceptionally(e -> new PaginatedResults<>(1, 1, 1, handleErrors(e)));
+                .whenComplete((results, e) -> {
+                    if (e != null) {
+                        handleErrors(e);
+                    }
+                }));
+    }
+
+    /**
+     * Deep pagination: fetches the page following {@code cursor} with {@code search_after} instead of {@code from},
+     * so Elasticsearch does not have to collect and skip every previous hit. The returned results carry the cursor
+     * of the next page when there is one.
+     */
+    public CompletionStage<PaginatedResults<SearchedHero>> searchHeroesAfter(String input, int size, int page, Optional<SearchCursor> cursor) {
+        accessLog.log("Search heroes after cursor");
+        return metrics.time("searchHeroesAfter", () -> pointInTime(cursor)
+                .thenCompose(pointInTimeId -> {
+                    final byte[] body = ElasticRequests.searchAfter(input, size, cursor.<JsonNode>map(c -> c.searchAfter),
+                            pointInTimeId, elasticConfiguration.pointInTimeKeepAlive);
+                    // A point in time already targets the index, so the request must not name it again
+                    final String path = pointInTimeId.isPresent() ? "/_search" : heroesSearchPath;
+                    return wsClient.url(elasticConfiguration.uri + path).post(ElasticRequests.body(body))
+                            .thenApply(response -> {
+                                final ElasticResponses.SearchPage searchPage = ElasticResponses.search(response.getBodyAsBytes().toArray());
+                                final Optional<String> next = searchPage.heroes.size() < size ? Optional.empty() : searchPage.lastSort.map(sort ->
+                                        new SearchCursor((ArrayNode) sort, searchPage.pointInTimeId.isPresent() ? searchPage.pointInTimeId : pointInTimeId).encode());
+                                return new PaginatedResults<>(searchPage.total, page, totalPage(searchPage.total, size), searchPage.heroes, next);
+                            });
+                })
+                .exceptionally(e -> new PaginatedResults<>(1, 1, 1, handleErrors(e))));
+    }
+
+    private CompletionStage<Optional<String>> pointInTime(Optional<SearchCursor> cursor) {
+        if (!elasticConfiguration.pointInTime) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        final Optional<String> current = cursor.flatMap(c -> c.pointInTimeId);
+        if (current.isPresent()) {
+            return CompletableFuture.completedFuture(current);
+        }
+        return wsClient.url(elasticConfiguration.uri + heroesPitPath)
+                .addQueryParameter("keep_alive", elasticConfiguration.pointInTimeKeepAlive)
+                .execute("POST")
+                .thenApply(response -> Optional.of(response.asJson().get("id").asText()));
     }
 
     public CompletionStage<List<SearchedHero>> suggest(String input) {
-        LOGGER.info("Suggest heroes");
-        return wsClient.url(elasticConfiguration.uri + HEROES_SEARCH_PATH)
-                .post(Json.parse(
-                                "{\n" +
-                                "  \"suggest\": {\n" +
-                                "    \"suggestion\": {\n" +
-                                "      \"prefix\": \"" + input + "\",\n" +
-                                "      \"completion\": {\n" +
-                                "        \"field\": \"suggest\"\n" +
-                                "      }\n" +
-                                "    }\n" +
-                                "  }\n" +
-                                "}"))
+        accessLog.log("Suggest heroes");
+        return metrics.time("suggest", () -> wsClient.url(elasticConfiguration.uri + heroesSearchPath)
+                .post(ElasticRequests.body(ElasticRequests.suggest(input)))
+                .thenApply(response -> ElasticResponses.suggest(response.getBodyAsBytes().toArray()))
+                .exceptionally(this::handleErrors));
+    }
+
+    /**
+     * Creates {@code index} with the mapping of the heroes index.
+     */
+    public CompletionStage<Void> createHeroesIndex(String index) {
+        LOGGER.info("Create heroes index");
+        return metrics.time("createHeroesIndex", () -> wsClient.url(elasticConfiguration.uri + "/" + index)
+                .put(ElasticRequests.body(ElasticRequests.heroesIndex()))
+                .thenApply(response -> requireSuccess(response, "create index " + index)));
+    }
+
+    /**
+     * Indexes {@code heroes} in a single bulk request. Items rejected because Elasticsearch is overloaded are handed
+     * back for a later retry, unlike the ones it refused for good.
+     */
+    public CompletionStage<BulkResult> bulkIndexHeroes(String index, List<Hero> heroes) {
+        LOGGER.info("Bulk index heroes");
+        return metrics.time("bulkIndexHeroes", () -> wsClient.url(elasticConfiguration.uri + BULK_PATH)
+                .post(ElasticRequests.bulkBody(ElasticRequests.bulkIndex(index, heroes)))
                 .thenApply(response -> {
-                    final Spliterator<JsonNode> iterator = response.asJson().get("suggest").get("suggestion").spliterator();
-                    return StreamSupport.stream(iterator, false)
-                            .flatMap(n -> mapHeroesFromJson(n, "options"))
-                            .collect(Collectors.toList());
-                })
-                .exceptionally(this::handleErrors);
+                    if (response.getStatus() == 429 || response.getStatus() >= 500) {
+                        return new BulkResult(0, 0, heroes);
+                    }
+                    requireSuccess(response, "bulk index into " + index);
+                    final ElasticResponses.BulkItems items = ElasticResponses.bulk(response.getBodyAsBytes().toArray());
+                    final List<Hero> retryable = items.retryable.stream().map(heroes::get).collect(Collectors.toList());
+                    return new BulkResult(items.indexed, items.failed, retryable);
+                }));
+    }
+
+    /**
+     * Returns the indices {@code alias} currently points to, empty if there is no such alias.
+     */
+    public CompletionStage<Set<String>> aliasedIndices(String alias) {
+        return metrics.time("aliasedIndices", () -> wsClient.url(elasticConfiguration.uri + "/_alias/" + alias)
+                .get()
+                .thenApply(response -> {
+                    if (response.getStatus() == 404) {
+                        return Collections.<String>emptySet();
+                    }
+                    requireSuccess(response, "get alias " + alias);
+                    final Set<String> indices = new HashSet<>();
+                    response.asJson().fieldNames().forEachRemaining(indices::add);
+                    return indices;
+                }));
+    }
+
+    public CompletionStage<Boolean> indexExists(String index) {
+        return metrics.time("indexExists", () -> wsClient.url(elasticConfiguration.uri + "/" + index)
+                .execute("HEAD")
+                .thenApply(response -> response.getStatus() == 200));
+    }
+
+    /**
+     * Atomically moves {@code alias} from {@code previousIndices} to {@code index}. With {@code replaceIndex}, the
+     * concrete index named {@code alias} is deleted in the same step, so that searches never see a missing index.
+     */
+    public CompletionStage<Void> swapAlias(String alias, String index, Collection<String> previousIndices, boolean replaceIndex) {
+        LOGGER.info("Swap alias");
+        return metrics.time("swapAlias", () -> wsClient.url(elasticConfiguration.uri + ALIASES_PATH)
+                .post(ElasticRequests.body(ElasticRequests.swapAlias(alias, index, previousIndices, replaceIndex)))
+                .thenApply(response -> requireSuccess(response, "point alias " + alias + " to " + index)));
+    }
+
+    public CompletionStage<Void> deleteIndex(String index) {
+        LOGGER.info("Delete index");
+        return metrics.time("deleteIndex", () -> wsClient.url(elasticConfiguration.uri + "/" + index)
+                .delete()
+                .thenApply(response -> requireSuccess(response, "delete index " + index)));
+    }
+
+    /**
+     * Counts of a bulk request, with the heroes to send again.
+     */
+    public static final class BulkResult {
+        public final int indexed;
+        public final int failed;
+        public final List<Hero> retryable;
+
+        public BulkResult(int indexed, int failed, List<Hero> retryable) {
+            this.indexed = indexed;
+            this.failed = failed;
+            this.retryable = retryable;
+        }
+    }
+
+    private static Void requireSuccess(WSResponse response, String action) {
+        if (response.getStatus() >= 300) {
+            throw new IllegalStateException("Elasticsearch failed to " + action + " (" + response.getStatus() + "): " + response.getBody());
+        }
+        return null;
     }
 
-    private Stream<SearchedHero> mapHeroesFromJson(final JsonNode node, final String nodeKey) {
-        return StreamSupport.stream(node.get(nodeKey).spliterator(), false)
-                .map(e -> {
-                    final JsonNode n = e.get("_source");
-                    ((ObjectNode) n).put("id", e.get("_id").textValue());
-                    return SearchedHero.fromJson(n);
-                });
+    private static int totalPage(int total, int size) {
+        return Math.max(1, (int) Math.ceil((double) total / (double) size));
     }
 
     private List<SearchedHero> handleErrors(final Throwable e) {
+        metrics.swallowedError();
         LOGGER.error("Error while contacting Elasticsearch: " + e.getMessage(), e);
         return Collections.emptyList();
     }
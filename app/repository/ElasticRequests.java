@@ -0,0 +1,245 @@
+package repository;
+
+import akka.util.ByteString;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.JsonNode;
+import models.Hero;
+import play.libs.Json;
+import play.libs.ws.BodyWritable;
+import play.libs.ws.InMemoryBodyWritable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Builds Elasticsearch request bodies straight to bytes with a streaming generator, so that user input is always
+ * escaped and no intermediate JSON string or tree is parsed on each request.
+ */
+final class ElasticRequests {
+
+    private static final String JSON_CONTENT_TYPE = "application/json";
+    private static final String NDJSON_CONTENT_TYPE = "application/x-ndjson";
+    private static final JsonFactory FACTORY = Json.mapper().getFactory();
+
+    private static final SerializedString FROM = new SerializedString("from");
+    private static final SerializedString SIZE = new SerializedString("size");
+    private static final SerializedString QUERY = new SerializedString("query");
+    private static final SerializedString QUERY_STRING = new SerializedString("query_string");
+    private static final SerializedString FIELDS = new SerializedString("fields");
+    private static final SerializedString SORT = new SerializedString("sort");
+    private static final SerializedString SEARCH_AFTER = new SerializedString("search_after");
+    private static final SerializedString PIT = new SerializedString("pit");
+    private static final SerializedString SOURCE = new SerializedString("_source");
+    private static final String SEARCH_FIELDS = "[\"name^4\",\"aliases^3\",\"secretIdentities^3\",\"description^2\",\"partners\"]";
+    // Only what a SearchedHero needs, the descriptions and suggest inputs are by far the largest part of a document
+    private static final String SOURCE_FIELDS = "[\"name\",\"imageUrl\",\"universe\",\"gender\"]";
+    private static final String SCORE_SORT = "{\"_score\":\"desc\"}";
+    private static final String ID_SORT = "{\"_id\":\"asc\"}";
+    private static final String SHARD_DOC_SORT = "{\"_shard_doc\":\"asc\"}";
+    private static final String SUGGEST_PREFIX = "{\"_source\":" + SOURCE_FIELDS + ",\"suggest\":{\"suggestion\":{\"prefix\":";
+    private static final String SUGGEST_SUFFIX = ",\"completion\":{\"field\":\"suggest\"}}}}";
+    private static final byte[] HEROES_INDEX = "{\"mappings\":{\"properties\":{\"suggest\":{\"type\":\"completion\"}}}}".getBytes(StandardCharsets.UTF_8);
+
+    private ElasticRequests() {
+    }
+
+    static byte[] search(String input, int from, int size) {
+        return write(generator -> {
+            generator.writeStartObject();
+            generator.writeFieldName(FROM);
+            generator.writeNumber(from);
+            generator.writeFieldName(SIZE);
+            generator.writeNumber(size);
+            generator.writeFieldName(SOURCE);
+            generator.writeRawValue(SOURCE_FIELDS);
+            writeQuery(generator, input);
+            generator.writeEndObject();
+        });
+    }
+
+    /**
+     * A point in time already targets the index, and sorting on {@code _shard_doc} is then the cheapest unique
+     * tiebreaker; without one, {@code _id} keeps the order total.
+     */
+    static byte[] searchAfter(String input, int size, Optional<JsonNode> searchAfter, Optional<String> pointInTimeId, String keepAlive) {
+        return write(generator -> {
+            generator.writeStartObject();
+            generator.writeFieldName(SIZE);
+            generator.writeNumber(size);
+            generator.writeFieldName(SOURCE);
+            generator.writeRawValue(SOURCE_FIELDS);
+            writeQuery(generator, input);
+            generator.writeFieldName(SORT);
+            generator.writeStartArray();
+            generator.writeRawValue(SCORE_SORT);
+            generator.writeRawValue(pointInTimeId.isPresent() ? SHARD_DOC_SORT : ID_SORT);
+            generator.writeEndArray();
+            if (searchAfter.isPresent()) {
+                generator.writeFieldName(SEARCH_AFTER);
+                generator.writeTree(searchAfter.get());
+            }
+            if (pointInTimeId.isPresent()) {
+                generator.writeFieldName(PIT);
+                generator.writeStartObject();
+                generator.writeStringField("id", pointInTimeId.get());
+                generator.writeStringField("keep_alive", keepAlive);
+                generator.writeEndObject();
+            }
+            generator.writeEndObject();
+        });
+    }
+
+    static byte[] suggest(String prefix) {
+        return write(generator -> {
+            generator.writeRaw(SUGGEST_PREFIX);
+            generator.writeString(prefix);
+            generator.writeRaw(SUGGEST_SUFFIX);
+        });
+    }
+
+    static byte[] heroesIndex() {
+        return HEROES_INDEX;
+    }
+
+    /**
+     * One index action per hero, documents being shaped like those of {@code scripts/import-elasticsearch.js}.
+     */
+    static byte[] bulkIndex(String index, List<Hero> heroes) {
+        return write(heroes.size() * 1024, generator -> {
+            for (Hero hero : heroes) {
+                generator.writeStartObject();
+                generator.writeObjectFieldStart("index");
+                generator.writeStringField("_index", index);
+                generator.writeStringField("_id", hero.id);
+                generator.writeEndObject();
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                writeHero(generator, hero);
+                generator.writeRaw('\n');
+            }
+        });
+    }
+
+    /**
+     * Points {@code alias} at {@code index} only, in a single atomic action. A concrete index named like the alias,
+     * as created by the import script, is deleted in the same action.
+     */
+    static byte[] swapAlias(String alias, String index, Collection<String> previousIndices, boolean replaceIndex) {
+        return write(generator -> {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("actions");
+            for (String previous : previousIndices) {
+                generator.writeStartObject();
+                generator.writeObjectFieldStart("remove");
+                generator.writeStringField("index", previous);
+                generator.writeStringField("alias", alias);
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            if (replaceIndex) {
+                generator.writeStartObject();
+                generator.writeObjectFieldStart("remove_index");
+                generator.writeStringField("index", alias);
+                generator.writeEndObject();
+                generator.writeEndObject();
+            }
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("add");
+            generator.writeStringField("index", index);
+            generator.writeStringField("alias", alias);
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
+        });
+    }
+
+    static BodyWritable<ByteString> body(byte[] bytes) {
+        return new InMemoryBodyWritable(ByteString.fromArrayUnsafe(bytes), JSON_CONTENT_TYPE);
+    }
+
+    static BodyWritable<ByteString> bulkBody(byte[] bytes) {
+        return new InMemoryBodyWritable(ByteString.fromArrayUnsafe(bytes), NDJSON_CONTENT_TYPE);
+    }
+
+    private static void writeQuery(JsonGenerator generator, String input) throws IOException {
+        generator.writeFieldName(QUERY);
+        generator.writeStartObject();
+        generator.writeFieldName(QUERY_STRING);
+        generator.writeStartObject();
+        generator.writeFieldName(FIELDS);
+        generator.writeRawValue(SEARCH_FIELDS);
+        generator.writeFieldName(QUERY);
+        generator.writeString(input.isEmpty() ? input + "*" : input + "~");
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+
+    private static void writeHero(JsonGenerator generator, Hero hero) throws IOException {
+        final String aliases = hero.identity == null ? "" : join(hero.identity.aliases);
+        final String secretIdentities = hero.identity == null ? "" : join(hero.identity.secretIdentities);
+        final String partners = join(hero.partners);
+        final String description = hero.description.orElse("");
+        generator.writeStartObject();
+        generator.writeStringField("name", hero.name);
+        generator.writeStringField("description", description);
+        generator.writeStringField("imageUrl", hero.imageUrl);
+        generator.writeStringField("universe", hero.identity == null ? null : hero.identity.universe);
+        generator.writeStringField("gender", hero.appearance == null ? "" : hero.appearance.gender.orElse(""));
+        generator.writeStringField("aliases", aliases);
+        generator.writeStringField("secretIdentities", secretIdentities);
+        generator.writeStringField("partners", partners);
+        generator.writeArrayFieldStart("suggest");
+        writeSuggestInput(generator, hero.name, 8);
+        writeSuggestInput(generator, aliases, 4);
+        writeSuggestInput(generator, secretIdentities, 4);
+        writeSuggestInput(generator, description, 2);
+        writeSuggestInput(generator, partners, 1);
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+
+    private static String join(List<String> values) {
+        return values == null ? "" : String.join(",", values);
+    }
+
+    private static void writeSuggestInput(JsonGenerator generator, String input, int weight) throws IOException {
+        // The completion field rejects empty inputs
+        if (input == null || input.isEmpty()) {
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeStringField("input", input);
+        generator.writeNumberField("weight", weight);
+        generator.writeEndObject();
+    }
+
+    private static byte[] write(BodyWriter writer) {
+        return write(256, writer);
+    }
+
+    private static byte[] write(int sizeHint, BodyWriter writer) {
+        try (ByteArrayBuilder bytes = new ByteArrayBuilder(sizeHint)) {
+            try (JsonGenerator generator = FACTORY.createGenerator(bytes)) {
+                // Bulk bodies are newline delimited, not separated by the default space
+                generator.setRootValueSeparator(null);
+                writer.write(generator);
+            }
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write(JsonGenerator generator) throws IOException;
+    }
+}
@@ -0,0 +1,258 @@
+package repository;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import models.SearchedHero;
+import play.libs.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads Elasticsearch responses in a single streaming pass, building {@link SearchedHero}s directly instead of
+ * materializing the whole response as a tree first.
+ */
+final class ElasticResponses {
+
+    private static final JsonFactory FACTORY = Json.mapper().getFactory();
+
+    /**
+     * Heroes and total of a search response, with what is needed to build the cursor of the following page.
+     */
+    static final class SearchPage {
+        final int total;
+        final List<SearchedHero> heroes;
+        final Optional<JsonNode> lastSort;
+        final Optional<String> pointInTimeId;
+
+        SearchPage(int total, List<SearchedHero> heroes, Optional<JsonNode> lastSort, Optional<String> pointInTimeId) {
+            this.total = total;
+            this.heroes = heroes;
+            this.lastSort = lastSort;
+            this.pointInTimeId = pointInTimeId;
+        }
+    }
+
+    /**
+     * Outcome of a bulk request, failed items being split between those worth retrying and the rejected ones.
+     */
+    static final class BulkItems {
+        final int indexed;
+        final int failed;
+        final List<Integer> retryable;
+
+        BulkItems(int indexed, int failed, List<Integer> retryable) {
+            this.indexed = indexed;
+            this.failed = failed;
+            this.retryable = retryable;
+        }
+    }
+
+    private ElasticResponses() {
+    }
+
+    static SearchPage search(byte[] body) {
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            boolean hasHits = false;
+            int total = 0;
+            final List<SearchedHero> heroes = new ArrayList<>();
+            final JsonNode[] lastSort = new JsonNode[1];
+            String pointInTimeId = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("hits".equals(field)) {
+                    hasHits = true;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        final String hitsField = parser.getCurrentName();
+                        parser.nextToken();
+                        if ("total".equals(hitsField)) {
+                            total = readTotal(parser);
+                        } else if ("hits".equals(hitsField)) {
+                            expect(parser.currentToken(), JsonToken.START_ARRAY);
+                            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                heroes.add(readHit(parser, lastSort));
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("pit_id".equals(field)) {
+                    pointInTimeId = parser.getValueAsString();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (!hasHits) {
+                throw new IllegalStateException("Elasticsearch response has no hits");
+            }
+            return new SearchPage(total, heroes, Optional.ofNullable(lastSort[0]), Optional.ofNullable(pointInTimeId));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<SearchedHero> suggest(byte[] body) {
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            List<SearchedHero> heroes = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                if ("suggest".equals(field)) {
+                    heroes = new ArrayList<>();
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        parser.nextToken();
+                        // One entry per suggestion, then one option per suggested hero
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                final String entryField = parser.getCurrentName();
+                                parser.nextToken();
+                                if ("options".equals(entryField)) {
+                                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                                        heroes.add(readHit(parser, new JsonNode[1]));
+                                    }
+                                } else {
+                                    parser.skipChildren();
+                                }
+                            }
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (heroes == null) {
+                throw new IllegalStateException("Elasticsearch response has no suggestions");
+            }
+            return heroes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static BulkItems bulk(byte[] body) {
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            int indexed = 0;
+            int failed = 0;
+            final List<Integer> retryable = new ArrayList<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                if (!"items".equals(field)) {
+                    parser.skipChildren();
+                    continue;
+                }
+                // Items come in the order of the request, each wrapped in its action name
+                int position = 0;
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    int status = 0;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        parser.nextToken();
+                        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                            final String itemField = parser.getCurrentName();
+                            parser.nextToken();
+                            if ("status".equals(itemField)) {
+                                status = parser.getValueAsInt();
+                            } else {
+                                parser.skipChildren();
+                            }
+                        }
+                    }
+                    if (status >= 200 && status < 300) {
+                        indexed++;
+                    } else if (status == 429 || status >= 500) {
+                        retryable.add(position);
+                    } else {
+                        failed++;
+                    }
+                    position++;
+                }
+            }
+            return new BulkItems(indexed, failed, retryable);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int readTotal(JsonParser parser) throws IOException {
+        // Elasticsearch 7 wraps the total in {"value": n, "relation": "eq"}, older versions return the bare number
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            return parser.getValueAsInt();
+        }
+        int total = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+            if ("value".equals(field)) {
+                total = parser.getValueAsInt();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return total;
+    }
+
+    private static SearchedHero readHit(JsonParser parser, JsonNode[] sort) throws IOException {
+        String id = null;
+        String imageUrl = null;
+        String name = null;
+        String universe = null;
+        String gender = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "_id":
+                    id = parser.getValueAsString();
+                    break;
+                case "sort":
+                    sort[0] = parser.readValueAsTree();
+                    break;
+                case "_source":
+                    if (parser.currentToken() != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        final String sourceField = parser.getCurrentName();
+                        parser.nextToken();
+                        switch (sourceField) {
+                            case "imageUrl":
+                            case "thumbnail":
+                                imageUrl = parser.getValueAsString();
+                                break;
+                            case "name":
+                                name = parser.getValueAsString();
+                                break;
+                            case "universe":
+                                universe = parser.getValueAsString();
+                                break;
+                            case "gender":
+                                gender = parser.getValueAsString();
+                                break;
+                            default:
+                                parser.skipChildren();
+                        }
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+        return new SearchedHero(id, imageUrl, name, universe, gender);
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) {
+        if (actual != expected) {
+            throw new IllegalStateException("Unexpected Elasticsearch response: expected " + expected + " but got " + actual);
+        }
+    }
+}
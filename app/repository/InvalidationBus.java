@@ -0,0 +1,79 @@
+package repository;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.pubsub.RedisPubSubAdapter;
+import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
+import models.Invalidation;
+import play.Logger;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache invalidations to the other nodes over a Redis pub/sub channel.
+ * A node does not receive its own invalidations back: it is expected to have applied them before publishing.
+ */
+@Singleton
+public class InvalidationBus {
+
+    private static final Logger.ALogger LOGGER = Logger.of("InvalidationBus");
+    private static final String CHANNEL = "heroes:invalidations";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StatefulRedisConnection<String, String> publisher;
+    private final StatefulRedisPubSubConnection<String, String> subscriber;
+    private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Inject
+    public InvalidationBus(RedisClient redisClient, ApplicationLifecycle lifecycle) {
+        // A connection in subscriber mode cannot publish
+        publisher = redisClient.connect();
+        subscriber = redisClient.connectPubSub();
+        subscriber.addListener(new RedisPubSubAdapter<String, String>() {
+            @Override
+            public void message(String channel, String message) {
+                receive(message);
+            }
+        });
+        subscriber.async().subscribe(CHANNEL);
+        lifecycle.addStopHook(() -> {
+            subscriber.close();
+            publisher.close();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Registers {@code listener} for the invalidations published by other nodes.
+     */
+    public void subscribe(Consumer<Invalidation> listener) {
+        listeners.add(listener);
+    }
+
+    public void publish(Invalidation invalidation) {
+        publisher.async().publish(CHANNEL, invalidation.encode(nodeId))
+                .exceptionally(e -> {
+                    LOGGER.error("Error while publishing invalidation: " + e.getMessage(), e);
+                    return 0L;
+                });
+    }
+
+    private void receive(String message) {
+        Invalidation.decode(message)
+                .filter(sent -> !nodeId.equals(sent.nodeId))
+                .ifPresent(sent -> listeners.forEach(listener -> {
+                    try {
+                        listener.accept(sent.invalidation);
+                    } catch (RuntimeException e) {
+                        LOGGER.error("Error while applying invalidation: " + e.getMessage(), e);
+                    }
+                }));
+    }
+}
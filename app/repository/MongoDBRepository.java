@@ -1,26 +1,43 @@
 package repository;
 
-import com.fasterxml.jackson.databind.JsonNode;
+import akka.NotUsed;
+import akka.stream.javadsl.Source;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.model.Accumulators;
 import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.Projections;
 import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.reactivestreams.client.ChangeStreamPublisher;
 import com.mongodb.reactivestreams.client.MongoCollection;
 import com.mongodb.reactivestreams.client.MongoDatabase;
+import env.MarvelHeroesConfiguration;
+import metrics.Metrics;
+import metrics.RepositoryMetrics;
 import models.Hero;
+import models.HeroSummary;
 import models.ItemCount;
 import models.YearAndUniverseStat;
+import org.bson.BsonDocument;
 import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.reactivestreams.Publisher;
 import play.Logger;
-import play.libs.Json;
 import utils.ReactiveStreamsUtils;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.CompletionStage;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 import static com.mongodb.client.model.Sorts.descending;
 import static com.mongodb.client.model.Sorts.orderBy;
@@ -29,27 +46,121 @@ import static com.mongodb.client.model.Sorts.orderBy;
 public class MongoDBRepository {
 
     private static final Logger.ALogger LOGGER = Logger.of("MongoDBRepository");
+    private static final Bson HERO_SUMMARY_PROJECTION = Projections.fields(
+            Projections.include("id", "name", "imageUrl", "identity.universe"),
+            Projections.excludeId());
+    // Heroes imported by the Node script have "" as unknown year, those imported by importer.HeroImporter no field
+    static final Bson KNOWN_YEAR_APPEARANCE = Filters.and(
+            Filters.exists("identity.yearAppearance"),
+            Filters.ne("identity.yearAppearance", ""));
 
     private final MongoCollection<Document> heroesCollection;
+    private final int batchSize;
+    private final RepositoryMetrics metrics;
+    private final AccessLog accessLog;
 
     @Inject
-    public MongoDBRepository(MongoDatabase mongoDatabase) {
+    public MongoDBRepository(MongoDatabase mongoDatabase, MarvelHeroesConfiguration configuration, Metrics metrics) {
         this.heroesCollection = mongoDatabase.getCollection("heroes");
+        this.batchSize = configuration.mongoConfiguration.batchSize;
+        this.metrics = metrics.repository("mongodb");
+        this.accessLog = new AccessLog("mongodb", configuration.repositoryLogConfiguration);
     }
 
     public CompletionStage<Optional<Hero>> heroById(String heroId) {
-        LOGGER.info("Retrieved hero by id");
-        final String query = String.format("{\"id\": \"%s\"}", heroId);
-        return ReactiveStreamsUtils.fromSinglePublisher(heroesCollection.find(Document.parse(query)).first())
-                .thenApply(result -> Optional.ofNullable(result).map(Document::toJson).map(Hero::fromJson))
+        accessLog.log("Retrieved hero by id");
+        return metrics.time("heroById", () -> findById(heroId, null, Hero.class));
+    }
+
+    public CompletionStage<List<Hero>> heroesByIds(Collection<String> heroIds) {
+        accessLog.log("Retrieved heroes by ids");
+        return metrics.time("heroesByIds", () -> findByIds(heroIds, null, Hero.class));
+    }
+
+    /**
+     * Folds over every hero, fetching only {@code fields}, without materializing the whole collection.
+     */
+    public <U> CompletionStage<U> foldHeroes(List<String> fields, U initial, BiFunction<U, Hero, U> accumulator) {
+        LOGGER.info("Fold over heroes");
+        return metrics.time("foldHeroes", () -> ReactiveStreamsUtils.fold(heroesCollection.find(Hero.class).projection(Projections.include(fields)).batchSize(batchSize), batchSize, initial, accumulator));
+    }
+
+    /**
+     * Streams every hero, fetched from MongoDB as fast as downstream consumes them.
+     */
+    public Source<Hero, NotUsed> heroesSource() {
+        LOGGER.info("Stream heroes");
+        return ReactiveStreamsUtils.toSource(heroesCollection.find(Hero.class).batchSize(batchSize), batchSize);
+    }
+
+    /**
+     * Inserts {@code heroes} with a single unordered bulk write, so that one rejected hero does not stop the others.
+     * Returns how many were inserted.
+     */
+    public CompletionStage<Integer> insertHeroes(List<Hero> heroes) {
+        LOGGER.info("Insert heroes");
+        final List<InsertOneModel<Hero>> inserts = heroes.stream().map(InsertOneModel::new).collect(Collectors.toList());
+        return metrics.time("insertHeroes", () -> ReactiveStreamsUtils.fromSinglePublisher(heroesCollection.withDocumentClass(Hero.class).bulkWrite(inserts, new BulkWriteOptions().ordered(false)))
+                .thenApply(BulkWriteResult::getInsertedCount)
+                .exceptionally(e -> {
+                    final Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause instanceof MongoBulkWriteException) {
+                        final MongoBulkWriteException bulkWriteException = (MongoBulkWriteException) cause;
+                        metrics.swallowedError();
+                        LOGGER.error(bulkWriteException.getWriteErrors().size() + " heroes could not be inserted: " + bulkWriteException.getWriteErrors().get(0).getMessage());
+                        return bulkWriteException.getWriteResult().getInsertedCount();
+                    }
+                    throw new CompletionException(cause);
+                }));
+    }
+
+    /**
+     * Watches changes to the heroes collection, resuming after {@code resumeToken} if present.
+     * Inserted, updated and replaced heroes come with their current full document.
+     */
+    public Publisher<ChangeStreamDocument<Hero>> heroChanges(Optional<BsonDocument> resumeToken) {
+        LOGGER.info("Watch heroes");
+        final ChangeStreamPublisher<Hero> changes = heroesCollection.watch(Hero.class).fullDocument(FullDocument.UPDATE_LOOKUP);
+        return resumeToken.map(changes::resumeAfter).orElse(changes);
+    }
+
+    public CompletionStage<List<HeroSummary>> heroSummariesByIds(Collection<String> heroIds) {
+        accessLog.log("Retrieved hero summaries by ids");
+        return metrics.time("heroSummariesByIds", () -> findByIds(heroIds, HERO_SUMMARY_PROJECTION, HeroSummary.class));
+    }
+
+    /**
+     * Finds a hero by id, decoding it as {@code resultClass}. A {@code null} projection returns every field.
+     */
+    private <T> CompletionStage<Optional<T>> findById(String heroId, Bson projection, Class<T> resultClass) {
+        return ReactiveStreamsUtils.fromSinglePublisher(heroesCollection.find(Filters.eq("id", heroId), resultClass).projection(projection).first())
+                .thenApply(Optional::ofNullable)
                 .exceptionally(e -> {
                     handleErrors(e);
                     return Optional.empty();
                 });
     }
 
+    /**
+     * Finds heroes by ids in a single query, decoding them as {@code resultClass}. Results are in no particular order.
+     */
+    private <T> CompletionStage<List<T>> findByIds(Collection<String> heroIds, Bson projection, Class<T> resultClass) {
+        if (heroIds.isEmpty()) {
+            return CompletableFuture.completedFuture(Collections.emptyList());
+        }
+        return ReactiveStreamsUtils.fromMultiPublisher(heroesCollection.find(Filters.in("id", heroIds), resultClass).projection(projection).batchSize(batchSize), batchSize)
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return Collections.emptyList();
+                });
+    }
+
+    /**
+     * Unlike lookups, the stats aggregations fail when MongoDB cannot be reached, for callers to keep their previous
+     * results rather than replace them with empty ones.
+     */
     public CompletionStage<List<YearAndUniverseStat>> countByYearAndUniverse() {
-        LOGGER.info("Retrieved count by year and universe");
+        accessLog.log("Retrieved count by year and universe");
         final Map<String, String> id = new HashMap<>();
         id.put("yearAppearance", "$identity.yearAppearance");
         id.put("universe", "$identity.universe");
@@ -61,68 +172,34 @@ public class MongoDBRepository {
         push.put("universe", "$_id.universe");
         push.put("count", "$count");
 
-        return ReactiveStreamsUtils.fromMultiPublisher(heroesCollection.aggregate(
+        return metrics.time("countByYearAndUniverse", () -> ReactiveStreamsUtils.fromMultiPublisher(heroesCollection.aggregate(
                 Arrays.asList(
-                        Aggregates.match(Filters.ne("identity.yearAppearance", "")),
+                        Aggregates.match(KNOWN_YEAR_APPEARANCE),
                         Aggregates.group(id, Accumulators.sum("count", 1)),
                         Aggregates.group(yearAppearance, Accumulators.push("byUniverse", push)),
                         Aggregates.sort(Sorts.ascending("_id"))
-                )))
-                .thenApply(documents -> documents.stream()
-                        .map(Document::toJson)
-                        .map(Json::parse)
-                        .map(jsonNode -> {
-                            int year = jsonNode.findPath("_id").findPath("yearAppearance").asInt();
-                            final Iterable<JsonNode> iterable = () -> jsonNode.findPath("byUniverse").elements();
-                            final List<ItemCount> byUniverse = StreamSupport.stream(iterable.spliterator(), false)
-                                    .map(node -> new ItemCount(node.findPath("universe").asText(), node.findPath("count").asInt()))
-                                    .collect(Collectors.toList());
-                            return new YearAndUniverseStat(year, byUniverse);
-
-                        })
-                        .collect(Collectors.toList()))
-                .exceptionally(e -> {
-                    handleErrors(e);
-                    return Collections.emptyList();
-                });
+                ), YearAndUniverseStat.class).batchSize(batchSize), batchSize));
     }
 
     public CompletionStage<List<ItemCount>> topPowers(int top) {
-        LOGGER.info("Retrieved top powers");
-        return ReactiveStreamsUtils.fromMultiPublisher(heroesCollection.aggregate(
+        accessLog.log("Retrieved top powers");
+        return metrics.time("topPowers", () -> ReactiveStreamsUtils.fromMultiPublisher(heroesCollection.aggregate(
                 Arrays.asList(
                         Aggregates.unwind("$powers"),
                         Aggregates.group("$powers", Accumulators.sum("count", 1)),
                         Aggregates.sort(orderBy(descending("count"))),
-                        Aggregates.limit(top))))
-                .thenApply(documents -> documents.stream()
-                        .map(Document::toJson)
-                        .map(Json::parse)
-                        .map(jsonNode -> new ItemCount(jsonNode.findPath("_id").asText(), jsonNode.findPath("count").asInt()))
-                        .collect(Collectors.toList()))
-                .exceptionally(e -> {
-                    handleErrors(e);
-                    return Collections.emptyList();
-                });
+                        Aggregates.limit(top)), ItemCount.class).batchSize(batchSize), batchSize));
     }
 
     public CompletionStage<List<ItemCount>> byUniverse() {
-        LOGGER.info("Retrieved by universe");
-        return ReactiveStreamsUtils.fromMultiPublisher(heroesCollection.aggregate(
+        accessLog.log("Retrieved by universe");
+        return metrics.time("byUniverse", () -> ReactiveStreamsUtils.fromMultiPublisher(heroesCollection.aggregate(
                 Collections.singletonList(
-                        Aggregates.group("$identity.universe", Accumulators.sum("count", 1)))))
-                .thenApply(documents -> documents.stream()
-                        .map(Document::toJson)
-                        .map(Json::parse)
-                        .map(jsonNode -> new ItemCount(jsonNode.findPath("_id").asText(), jsonNode.findPath("count").asInt()))
-                        .collect(Collectors.toList()))
-                .exceptionally(e -> {
-                    handleErrors(e);
-                    return Collections.emptyList();
-                });
+                        Aggregates.group("$identity.universe", Accumulators.sum("count", 1))), ItemCount.class).batchSize(batchSize), batchSize));
     }
 
     private void handleErrors(final Throwable e) {
+        metrics.swallowedError();
         LOGGER.error("Error while contacting MongoDB: " + e.getMessage(), e);
     }
 }
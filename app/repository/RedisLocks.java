@@ -0,0 +1,80 @@
+package repository;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import play.Logger;
+import play.inject.ApplicationLifecycle;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Locks shared by all nodes, for work that must run on a single one. A lock expires after its TTL even if its owner
+ * never releases it, so that a node dying while holding it does not block the others for good.
+ */
+@Singleton
+public class RedisLocks {
+
+    private static final Logger.ALogger LOGGER = Logger.of("RedisLocks");
+    // Deletes the lock only if the caller still holds it, not once it expired and another node took it
+    private static final String UNLOCK_SCRIPT = "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StatefulRedisConnection<String, String> redis;
+
+    @Inject
+    public RedisLocks(RedisClient redisClient, ApplicationLifecycle lifecycle) {
+        redis = redisClient.connect();
+        lifecycle.addStopHook(() -> {
+            redis.close();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * Takes {@code key} for {@code ttl} unless another node holds it. Completes with false as well when Redis cannot
+     * be reached.
+     */
+    public CompletionStage<Boolean> tryLock(String key, Duration ttl) {
+        return redis.async()
+                .set(key, nodeId, SetArgs.Builder.nx().px(ttl.toMillis()))
+                .thenApply("OK"::equals)
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return false;
+                });
+    }
+
+    /**
+     * Whether any node holds {@code key}, assumed when Redis cannot be reached.
+     */
+    public CompletionStage<Boolean> isLocked(String key) {
+        return redis.async()
+                .exists(key)
+                .thenApply(count -> count > 0)
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return true;
+                });
+    }
+
+    public CompletionStage<Void> unlock(String key) {
+        return redis.async()
+                .<Long>eval(UNLOCK_SCRIPT, ScriptOutputType.INTEGER, new String[]{key}, nodeId)
+                .<Void>thenApply(deleted -> null)
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return null;
+                });
+    }
+
+    private void handleErrors(final Throwable e) {
+        LOGGER.error("Error while contacting Redis: " + e.getMessage(), e);
+    }
+}
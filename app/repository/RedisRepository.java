@@ -1,7 +1,15 @@
 package repository;
 
+import env.MarvelHeroesConfiguration;
 import io.lettuce.core.RedisClient;
+import io.lettuce.core.ScoredValue;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.SetArgs;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import metrics.Metrics;
+import metrics.RepositoryMetrics;
+import models.HeroVisits;
 import models.StatItem;
 import models.TopStatItem;
 import play.Logger;
@@ -9,9 +17,16 @@ import play.Logger;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
 import java.util.stream.Collectors;
 
@@ -21,29 +36,164 @@ public class RedisRepository {
     private static final Logger.ALogger LOGGER = Logger.of("RedisRepository");
     private static final String TOP_HEROES_KEY = "top-heroes";
     private static final String VIEWED_HEROES_KEY = "viewed-heroes";
+    private static final String COMPACT_TOP_HEROES_KEY = "top-heroes:ids";
+    private static final String COMPACT_VIEWED_HEROES_KEY = "viewed-heroes:ids";
+    private static final String COMPACT_MIGRATION_KEY = "heroes:ids-migrated";
+    private static final String COMPACT_MIGRATION_LOCK_KEY = "heroes:ids-migrating";
+    private static final Duration COMPACT_MIGRATION_LOCK_TTL = Duration.ofMinutes(5);
+    private static final String STAGED_TOP_HEROES_KEY = "top-heroes:ids:staged";
+    private static final String STAGED_VIEWED_HEROES_KEY = "viewed-heroes:ids:staged";
+    // Adds the staged counts to those recorded by compact nodes meanwhile, keeps the most recent visits, then marks
+    // the migration done, all at once
+    private static final String MERGE_STAGED_SCRIPT = String.join("\n",
+            "redis.call('zunionstore', KEYS[1], 2, KEYS[1], KEYS[3], 'AGGREGATE', 'SUM')",
+            "redis.call('zunionstore', KEYS[2], 2, KEYS[2], KEYS[4], 'AGGREGATE', 'MIN')",
+            "redis.call('zremrangebyrank', KEYS[2], ARGV[2], -1)",
+            "redis.call('set', KEYS[5], ARGV[1])",
+            "redis.call('del', KEYS[3], KEYS[4])",
+            "return 1");
+    private static final String PENDING_REINDEX_KEY = "heroes:reindex:pending";
+    private static final int VIEWED_HEROES_SIZE = 5;
 
     private final StatefulRedisConnection<String, String> redis;
+    private final StatefulRedisConnection<String, String> pipeline;
+    private final boolean compactMembers;
+    private final String topHeroesKey;
+    private final String viewedHeroesKey;
+    private final RepositoryMetrics metrics;
+    private final AccessLog accessLog;
 
     @Inject
-    public RedisRepository(RedisClient redisClient) {
+    public RedisRepository(RedisClient redisClient, MarvelHeroesConfiguration configuration, Metrics metrics) {
         redis = redisClient.connect();
+        pipeline = redisClient.connect();
+        pipeline.setAutoFlushCommands(false);
+        compactMembers = configuration.redisConfiguration.compactMembers;
+        topHeroesKey = compactMembers ? COMPACT_TOP_HEROES_KEY : TOP_HEROES_KEY;
+        viewedHeroesKey = compactMembers ? COMPACT_VIEWED_HEROES_KEY : VIEWED_HEROES_KEY;
+        this.metrics = metrics.repository("redis");
+        this.accessLog = new AccessLog("redis", configuration.repositoryLogConfiguration);
+        if (compactMembers) {
+            migrateToCompactMembers();
+        }
+    }
+
+    /**
+     * Whether sorted set members are hero ids, to be resolved with {@link #lastHeroIdsVisited} and {@link #topHeroIdsVisited},
+     * rather than full {@link StatItem} JSON.
+     */
+    public boolean compactMembers() {
+        return compactMembers;
+    }
+
+    private String member(StatItem statItem) {
+        return compactMembers ? statItem.slug : statItem.toJson().toString();
+    }
+
+    /**
+     * Copies the legacy JSON-member sorted sets into the compact ones, keyed by hero id; legacy keys are left untouched.
+     * The copy is staged in separate keys, then merged into the compact ones together with setting the
+     * {@code heroes:ids-migrated} marker in a single script, so that a failed copy leaves nothing behind and is retried
+     * by the next node to start. A short-lived lock keeps nodes starting together from copying twice.
+     * <p>
+     * Visits recorded by nodes still in legacy mode once the copy is done only reach the legacy keys: during a rolling
+     * deploy, those are lost from the compact tops and last visited heroes.
+     */
+    public CompletionStage<Boolean> migrateToCompactMembers() {
+        final RedisAsyncCommands<String, String> commands = redis.async();
+        return metrics.time("migrateToCompactMembers", () -> commands.exists(COMPACT_MIGRATION_KEY)
+                .thenCompose(migrated -> migrated > 0
+                        ? CompletableFuture.completedFuture(false)
+                        : commands.set(COMPACT_MIGRATION_LOCK_KEY, String.valueOf(System.currentTimeMillis()), SetArgs.Builder.nx().px(COMPACT_MIGRATION_LOCK_TTL.toMillis()))
+                                .thenCompose(acquired -> "OK".equals(acquired) ? copyToCompactMembers(commands) : CompletableFuture.completedFuture(false)))
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return false;
+                }));
+    }
+
+    private CompletionStage<Boolean> copyToCompactMembers(RedisAsyncCommands<String, String> commands) {
+        LOGGER.info("Migrate top and viewed heroes to compact members");
+        return commands.zrangeWithScores(TOP_HEROES_KEY, 0, -1)
+                .thenCombine(commands.zrangeWithScores(VIEWED_HEROES_KEY, 0, -1), (tops, viewed) -> {
+                    final List<CompletableFuture<?>> replies = new ArrayList<>();
+                    synchronized (pipeline) {
+                        final RedisAsyncCommands<String, String> batch = pipeline.async();
+                        replies.add(batch.del(STAGED_TOP_HEROES_KEY, STAGED_VIEWED_HEROES_KEY).toCompletableFuture());
+                        tops.forEach(h -> compactMember(h).ifPresent(slug -> replies.add(batch.zincrby(STAGED_TOP_HEROES_KEY, h.getScore(), slug).toCompletableFuture())));
+                        viewed.forEach(h -> compactMember(h).ifPresent(slug -> replies.add(batch.zadd(STAGED_VIEWED_HEROES_KEY, h.getScore(), slug).toCompletableFuture())));
+                        pipeline.flushCommands();
+                    }
+                    return CompletableFuture.allOf(replies.toArray(new CompletableFuture<?>[0]));
+                })
+                .thenCompose(replies -> replies)
+                .thenCompose(v -> commands.<Long>eval(MERGE_STAGED_SCRIPT, ScriptOutputType.INTEGER,
+                        new String[]{COMPACT_TOP_HEROES_KEY, COMPACT_VIEWED_HEROES_KEY, STAGED_TOP_HEROES_KEY, STAGED_VIEWED_HEROES_KEY, COMPACT_MIGRATION_KEY},
+                        String.valueOf(System.currentTimeMillis()), String.valueOf(VIEWED_HEROES_SIZE)))
+                .thenApply(merged -> true)
+                .whenComplete((migrated, e) -> {
+                    if (e != null) {
+                        // Nothing was merged, the next node to start can copy again right away
+                        commands.del(COMPACT_MIGRATION_LOCK_KEY);
+                    }
+                });
+    }
+
+    /**
+     * The hero id of a legacy member, empty if it cannot be parsed: one bad member must not fail the whole copy.
+     */
+    private static Optional<String> compactMember(ScoredValue<String> legacy) {
+        try {
+            return Optional.of(StatItem.fromJson(legacy.getValue()).slug);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Skipped malformed legacy member " + legacy.getValue() + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Records a batch of visits in a single round trip: one {@code ZINCRBY} per hero, then one {@code ZADD}
+     * and one {@code ZREMRANGEBYRANK} for the last visited heroes.
+     */
+    public CompletionStage<Boolean> addHeroesVisited(Collection<HeroVisits> visits) {
+        accessLog.log("Heroes visited {}", visits.size());
+        final List<CompletableFuture<?>> replies = new ArrayList<>();
+        final Object[] lastVisited = new Object[visits.size() * 2];
+        synchronized (pipeline) {
+            final RedisAsyncCommands<String, String> commands = pipeline.async();
+            int i = 0;
+            for (HeroVisits visit : visits) {
+                final String member = member(visit.statItem);
+                replies.add(commands.zincrby(topHeroesKey, visit.count, member).toCompletableFuture());
+                lastVisited[i++] = (double) -visit.lastVisitedAt;
+                lastVisited[i++] = member;
+            }
+            replies.add(commands.zadd(viewedHeroesKey, lastVisited).toCompletableFuture());
+            replies.add(commands.zremrangebyrank(viewedHeroesKey, VIEWED_HEROES_SIZE, -1).toCompletableFuture());
+            pipeline.flushCommands();
+        }
+        return metrics.time("addHeroesVisited", () -> CompletableFuture.allOf(replies.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> true)
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return false;
+                }));
     }
 
     public CompletionStage<Boolean> addNewHeroVisited(StatItem statItem) {
-        LOGGER.info("Hero visited " + statItem.name);
-        return addHeroAsLastVisited(statItem)
+        accessLog.log("Hero visited {}", statItem.name);
+        return metrics.time("addNewHeroVisited", () -> addHeroAsLastVisited(statItem)
                 .thenCombine(incrHeroInTops(statItem), (aLong, aBoolean) -> aBoolean && aLong > 0)
                 .exceptionally(e -> {
                     handleErrors(e);
                     return false;
-                });
+                }));
     }
 
     private CompletionStage<Boolean> incrHeroInTops(StatItem statItem) {
-        LOGGER.info("Incr hero in top");
         return redis
                 .async()
-                .zincrby(TOP_HEROES_KEY, 1, statItem.toJson().toString())
+                .zincrby(topHeroesKey, 1, member(statItem))
                 .thenApply(d -> !d.isNaN())
                 .exceptionally(e -> {
                     handleErrors(e);
@@ -52,13 +202,12 @@ public class RedisRepository {
     }
 
     private CompletionStage<Long> addHeroAsLastVisited(StatItem statItem) {
-        LOGGER.info("Add last visited hero");
         return redis
                 .async()
-                .zadd(VIEWED_HEROES_KEY, -new Timestamp(new Date().getTime()).getTime(), statItem.toJson().toString())
+                .zadd(viewedHeroesKey, -new Timestamp(new Date().getTime()).getTime(), member(statItem))
                 .thenCombine(redis
                         .async()
-                        .zremrangebyrank(VIEWED_HEROES_KEY, 5, -1), (ladd, lrem) -> ladd)
+                        .zremrangebyrank(viewedHeroesKey, VIEWED_HEROES_SIZE, -1), (ladd, lrem) -> ladd)
                 .exceptionally(e -> {
                     handleErrors(e);
                     return -1L;
@@ -66,8 +215,8 @@ public class RedisRepository {
     }
 
     public CompletionStage<List<StatItem>> lastHeroesVisited(int count) {
-        LOGGER.info("Retrieved last viewed heroes");
-        return redis
+        accessLog.log("Retrieved last viewed heroes");
+        return metrics.time("lastHeroesVisited", () -> redis
                 .async()
                 .zrange(VIEWED_HEROES_KEY, 0, count - 1)
                 .thenApply(hs -> hs
@@ -77,12 +226,12 @@ public class RedisRepository {
                 .exceptionally(e -> {
                     handleErrors(e);
                     return Collections.emptyList();
-                });
+                }));
     }
 
     public CompletionStage<List<TopStatItem>> topHeroesVisited(int count) {
-        LOGGER.info("Retrieved top heroes");
-        return redis
+        accessLog.log("Retrieved top heroes");
+        return metrics.time("topHeroesVisited", () -> redis
                 .async()
                 .zrevrangeWithScores(TOP_HEROES_KEY, 0, count - 1)
                 .thenApply(hs -> hs
@@ -92,10 +241,83 @@ public class RedisRepository {
                 .exceptionally(e -> {
                     handleErrors(e);
                     return Collections.emptyList();
-                });
+                }));
+    }
+
+    public CompletionStage<List<String>> lastHeroIdsVisited(int count) {
+        accessLog.log("Retrieved last viewed hero ids");
+        return metrics.time("lastHeroIdsVisited", () -> redis
+                .async()
+                .zrange(COMPACT_VIEWED_HEROES_KEY, 0, count - 1)
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return Collections.emptyList();
+                }));
+    }
+
+    /**
+     * Returns the most visited hero ids with their visit count, most visited first.
+     */
+    public CompletionStage<LinkedHashMap<String, Long>> topHeroIdsVisited(int count) {
+        accessLog.log("Retrieved top hero ids");
+        return metrics.time("topHeroIdsVisited", () -> redis
+                .async()
+                .zrevrangeWithScores(COMPACT_TOP_HEROES_KEY, 0, count - 1)
+                .thenApply(hs -> hs
+                        .stream()
+                        .collect(Collectors.toMap(ScoredValue::getValue, h -> (long) h.getScore(), (h1, h2) -> h1, LinkedHashMap::new)))
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return new LinkedHashMap<>();
+                }));
+    }
+
+    /**
+     * Queues {@code heroId} to be indexed again once the running reindex moved the search alias.
+     */
+    public CompletionStage<Boolean> addPendingReindexHero(String heroId) {
+        accessLog.log("Hero pending reindex {}", heroId);
+        return metrics.time("addPendingReindexHero", () -> redis
+                .async()
+                .sadd(PENDING_REINDEX_KEY, heroId)
+                .thenApply(added -> true)
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return false;
+                }));
+    }
+
+    /**
+     * Removes and returns the hero ids queued by {@link #addPendingReindexHero}.
+     */
+    public CompletionStage<Set<String>> takePendingReindexHeroes() {
+        accessLog.log("Retrieved heroes pending reindex");
+        final RedisAsyncCommands<String, String> commands = redis.async();
+        return metrics.time("takePendingReindexHeroes", () -> commands
+                .smembers(PENDING_REINDEX_KEY)
+                .<Set<String>>thenCompose(heroIds -> heroIds.isEmpty()
+                        ? CompletableFuture.completedFuture(heroIds)
+                        : commands.srem(PENDING_REINDEX_KEY, heroIds.toArray(new String[0])).thenApply(removed -> heroIds))
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return Collections.emptySet();
+                }));
+    }
+
+    public CompletionStage<Boolean> clearPendingReindexHeroes() {
+        accessLog.log("Cleared heroes pending reindex");
+        return metrics.time("clearPendingReindexHeroes", () -> redis
+                .async()
+                .del(PENDING_REINDEX_KEY)
+                .thenApply(deleted -> true)
+                .exceptionally(e -> {
+                    handleErrors(e);
+                    return false;
+                }));
     }
 
     private void handleErrors(final Throwable e) {
+        metrics.swallowedError();
         LOGGER.error("Error while contacting Redis: " + e.getMessage(), e);
     }
 }
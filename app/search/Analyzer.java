@@ -0,0 +1,49 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Text analysis shared by the in-process indexes: lower-casing, and splitting on anything that is not a letter or a digit.
+ */
+public final class Analyzer {
+
+    private Analyzer() {}
+
+    /**
+     * Lower-cases and replaces every run of characters that are not letters or digits with a single space,
+     * so that "Spider-Man" and "spider man" are the same key.
+     */
+    public static String normalize(String input) {
+        final StringBuilder normalized = new StringBuilder(input.length());
+        boolean separator = false;
+        for (int i = 0; i < input.length(); i++) {
+            final char c = input.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                if (separator && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                separator = false;
+            } else {
+                separator = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    public static List<String> tokens(String input) {
+        final List<String> tokens = new ArrayList<>();
+        final String normalized = normalize(input);
+        int start = 0;
+        for (int i = 0; i <= normalized.length(); i++) {
+            if (i == normalized.length() || normalized.charAt(i) == ' ') {
+                if (i > start) {
+                    tokens.add(normalized.substring(start, i));
+                }
+                start = i + 1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,88 @@
+package search;
+
+import env.MarvelHeroesConfiguration;
+import env.SearchConfiguration;
+import models.Hero;
+import models.PaginatedResults;
+import models.SearchedHero;
+import play.Logger;
+import repository.MongoDBRepository;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process replacement for the Elasticsearch hero search, built from the heroes stored in MongoDB.
+ * Fields and boosts are the ones of {@code ElasticRepository.searchHeroes}, and queries are built the same way.
+ * Until the index is built, {@link #searchHeroes} returns nothing.
+ */
+@Singleton
+public class EmbeddedHeroSearch {
+
+    private static final Logger.ALogger LOGGER = Logger.of("EmbeddedHeroSearch");
+    private static final List<String> FIELDS = Arrays.asList(
+            "id", "name", "imageUrl", "description", "partners",
+            "identity.aliases", "identity.secretIdentities", "identity.universe", "appearance.gender");
+    private static final float NAME_BOOST = 4;
+    private static final float ALIASES_BOOST = 3;
+    private static final float SECRET_IDENTITIES_BOOST = 3;
+    private static final float DESCRIPTION_BOOST = 2;
+    private static final float PARTNERS_BOOST = 1;
+
+    private final MongoDBRepository mongoDBRepository;
+    private final AtomicReference<InvertedIndex<SearchedHero>> index = new AtomicReference<>();
+
+    @Inject
+    public EmbeddedHeroSearch(MongoDBRepository mongoDBRepository, MarvelHeroesConfiguration configuration) {
+        this.mongoDBRepository = mongoDBRepository;
+        if (configuration.searchConfiguration.engine == SearchConfiguration.Engine.EMBEDDED) {
+            rebuild();
+        }
+    }
+
+    public Optional<PaginatedResults<SearchedHero>> searchHeroes(String input, int size, int page) {
+        final InvertedIndex<SearchedHero> current = index.get();
+        if (current == null) {
+            return Optional.empty();
+        }
+        final InvertedIndex.Results<SearchedHero> results = current.search(input.isEmpty() ? "*" : input + "~", size * (page - 1), size);
+        return Optional.of(new PaginatedResults<>(results.total, page, Math.max(1, (int) Math.ceil((double) results.total / (double) size)), results.hits));
+    }
+
+    public CompletionStage<Boolean> rebuild() {
+        final InvertedIndex.Builder<SearchedHero> builder = new InvertedIndex.Builder<>(
+                NAME_BOOST, ALIASES_BOOST, SECRET_IDENTITIES_BOOST, DESCRIPTION_BOOST, PARTNERS_BOOST);
+        return mongoDBRepository.foldHeroes(FIELDS, builder, EmbeddedHeroSearch::addHero)
+                .thenApply(b -> {
+                    final InvertedIndex<SearchedHero> built = b.build();
+                    index.set(built);
+                    LOGGER.info("Built search index with " + built.size() + " heroes");
+                    return true;
+                })
+                .exceptionally(e -> {
+                    LOGGER.error("Error while building search index: " + e.getMessage(), e);
+                    return false;
+                });
+    }
+
+    private static InvertedIndex.Builder<SearchedHero> addHero(InvertedIndex.Builder<SearchedHero> builder, Hero hero) {
+        final String universe = hero.identity == null ? null : hero.identity.universe;
+        final String gender = hero.appearance == null ? null : hero.appearance.gender.orElse(null);
+        return builder.add(new SearchedHero(hero.id, hero.imageUrl, hero.name, universe, gender), Arrays.asList(
+                Collections.singletonList(hero.name),
+                orEmpty(hero.identity == null ? null : hero.identity.aliases),
+                orEmpty(hero.identity == null ? null : hero.identity.secretIdentities),
+                Collections.singletonList(hero.description.orElse(null)),
+                orEmpty(hero.partners)));
+    }
+
+    private static List<String> orEmpty(List<String> values) {
+        return values == null ? Collections.emptyList() : values;
+    }
+}
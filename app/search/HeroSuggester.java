@@ -0,0 +1,84 @@
+package search;
+
+import env.MarvelHeroesConfiguration;
+import models.Hero;
+import models.SearchedHero;
+import play.Logger;
+import repository.MongoDBRepository;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-memory replacement for the Elasticsearch completion suggester, built from the heroes stored in MongoDB.
+ * Inputs and weights are the ones of {@code scripts/import-elasticsearch.js}.
+ * Until the index is built (or if building it failed), {@link #suggest} returns nothing so that callers fall back to Elasticsearch.
+ */
+@Singleton
+public class HeroSuggester {
+
+    private static final Logger.ALogger LOGGER = Logger.of("HeroSuggester");
+    private static final List<String> FIELDS = Arrays.asList(
+            "id", "name", "imageUrl", "description", "partners",
+            "identity.aliases", "identity.secretIdentities", "identity.universe", "appearance.gender");
+    private static final int NAME_WEIGHT = 8;
+    private static final int ALIASES_WEIGHT = 4;
+    private static final int SECRET_IDENTITIES_WEIGHT = 4;
+    private static final int DESCRIPTION_WEIGHT = 2;
+    private static final int PARTNERS_WEIGHT = 1;
+    private static final int SIZE = 5;
+
+    private final MongoDBRepository mongoDBRepository;
+    private final AtomicReference<PrefixIndex<SearchedHero>> index = new AtomicReference<>();
+
+    @Inject
+    public HeroSuggester(MongoDBRepository mongoDBRepository, MarvelHeroesConfiguration configuration) {
+        this.mongoDBRepository = mongoDBRepository;
+        if (configuration.suggestConfiguration.inProcess) {
+            rebuild();
+        }
+    }
+
+    public Optional<List<SearchedHero>> suggest(String input) {
+        return Optional.ofNullable(index.get()).map(i -> i.lookup(input, SIZE));
+    }
+
+    public CompletionStage<Boolean> rebuild() {
+        return mongoDBRepository.foldHeroes(FIELDS, new PrefixIndex.Builder<SearchedHero>(), HeroSuggester::addHero)
+                .thenApply(builder -> {
+                    final PrefixIndex<SearchedHero> built = builder.build();
+                    index.set(built);
+                    LOGGER.info("Built suggestion index with " + built.size() + " inputs");
+                    return true;
+                })
+                .exceptionally(e -> {
+                    LOGGER.error("Error while building suggestion index: " + e.getMessage(), e);
+                    return false;
+                });
+    }
+
+    private static PrefixIndex.Builder<SearchedHero> addHero(PrefixIndex.Builder<SearchedHero> builder, Hero hero) {
+        final String universe = hero.identity == null ? null : hero.identity.universe;
+        final String gender = hero.appearance == null ? null : hero.appearance.gender.orElse(null);
+        final int id = builder.addItem(new SearchedHero(hero.id, hero.imageUrl, hero.name, universe, gender));
+        builder.addInput(id, hero.name, NAME_WEIGHT);
+        if (hero.identity != null) {
+            addInputs(builder, id, hero.identity.aliases, ALIASES_WEIGHT);
+            addInputs(builder, id, hero.identity.secretIdentities, SECRET_IDENTITIES_WEIGHT);
+        }
+        builder.addInput(id, hero.description.orElse(null), DESCRIPTION_WEIGHT);
+        addInputs(builder, id, hero.partners, PARTNERS_WEIGHT);
+        return builder;
+    }
+
+    private static void addInputs(PrefixIndex.Builder<SearchedHero> builder, int id, List<String> inputs, int weight) {
+        if (inputs != null) {
+            inputs.forEach(input -> builder.addInput(id, input, weight));
+        }
+    }
+}
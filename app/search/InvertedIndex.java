@@ -0,0 +1,227 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable in-memory inverted index over boosted text fields, answering the subset of the Elasticsearch
+ * {@code query_string} syntax used by the application: plain terms (OR-ed), {@code term~} fuzzy terms,
+ * {@code term*} prefix terms and {@code *} alone to match everything.
+ * Fields are scored with BM25 and, as with the {@code best_fields} type, a document gets the score of its best field.
+ */
+public class InvertedIndex<T> {
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+
+    private final List<T> documents;
+    private final float[] boosts;
+    private final Map<String, List<Posting>> postings;
+    private final int[][] fieldLengths;
+    private final float[] averageFieldLengths;
+
+    private InvertedIndex(List<T> documents, float[] boosts, Map<String, List<Posting>> postings, int[][] fieldLengths) {
+        this.documents = documents;
+        this.boosts = boosts;
+        this.postings = postings;
+        this.fieldLengths = fieldLengths;
+        this.averageFieldLengths = new float[boosts.length];
+        for (int[] lengths : fieldLengths) {
+            for (int field = 0; field < boosts.length; field++) {
+                averageFieldLengths[field] += lengths[field];
+            }
+        }
+        for (int field = 0; field < boosts.length; field++) {
+            averageFieldLengths[field] = documents.isEmpty() ? 0 : averageFieldLengths[field] / documents.size();
+        }
+    }
+
+    public Results<T> search(String query, int from, int size) {
+        final String trimmed = query.trim();
+        if (trimmed.equals("*") || trimmed.equals("*~")) {
+            return new Results<>(documents.size(), page(documents, from, size));
+        }
+
+        final Map<Integer, float[]> fieldScores = new HashMap<>();
+        for (String clause : trimmed.split("\\s+")) {
+            final boolean fuzzy = clause.endsWith("~");
+            final boolean prefix = clause.endsWith("*");
+            final List<String> terms = Analyzer.tokens(clause);
+            for (int i = 0; i < terms.size(); i++) {
+                final String term = terms.get(i);
+                if (prefix && i == terms.size() - 1) {
+                    postings.keySet().stream()
+                            .filter(indexed -> indexed.startsWith(term))
+                            .forEach(indexed -> score(indexed, 1f, fieldScores));
+                } else if (fuzzy) {
+                    final int maxEdits = maxEdits(term);
+                    postings.keySet().forEach(indexed -> {
+                        final int edits = editDistance(term, indexed, maxEdits);
+                        if (edits <= maxEdits) {
+                            score(indexed, 1f / (1 + edits), fieldScores);
+                        }
+                    });
+                } else {
+                    score(term, 1f, fieldScores);
+                }
+            }
+        }
+
+        final List<Map.Entry<Integer, Float>> hits = fieldScores.entrySet().stream()
+                .map(e -> Map.entry(e.getKey(), bestField(e.getValue())))
+                .sorted((h1, h2) -> h1.getValue().equals(h2.getValue())
+                        ? Integer.compare(h1.getKey(), h2.getKey())
+                        : Float.compare(h2.getValue(), h1.getValue()))
+                .collect(Collectors.toList());
+        final List<T> results = page(hits, from, size).stream()
+                .map(hit -> documents.get(hit.getKey()))
+                .collect(Collectors.toList());
+        return new Results<>(hits.size(), results);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private void score(String term, float weight, Map<Integer, float[]> fieldScores) {
+        final List<Posting> termPostings = postings.get(term);
+        if (termPostings == null) {
+            return;
+        }
+        final int[] documentFrequencies = new int[boosts.length];
+        termPostings.forEach(posting -> documentFrequencies[posting.field]++);
+        for (Posting posting : termPostings) {
+            final int df = documentFrequencies[posting.field];
+            final float idf = (float) Math.log(1 + (documents.size() - df + 0.5) / (df + 0.5));
+            final float norm = averageFieldLengths[posting.field] == 0 ? 1
+                    : 1 - B + B * fieldLengths[posting.doc][posting.field] / averageFieldLengths[posting.field];
+            final float tf = posting.frequency * (K1 + 1) / (posting.frequency + K1 * norm);
+            fieldScores.computeIfAbsent(posting.doc, doc -> new float[boosts.length])[posting.field] += weight * idf * tf;
+        }
+    }
+
+    private float bestField(float[] scores) {
+        float best = 0;
+        for (int field = 0; field < scores.length; field++) {
+            best = Math.max(best, scores[field] * boosts[field]);
+        }
+        return best;
+    }
+
+    private static <E> List<E> page(List<E> elements, int from, int size) {
+        if (from >= elements.size()) {
+            return Collections.emptyList();
+        }
+        return elements.subList(Math.max(0, from), Math.min(elements.size(), from + size));
+    }
+
+    /**
+     * Same as Elasticsearch's {@code AUTO} fuzziness.
+     */
+    static int maxEdits(String term) {
+        return term.length() < 3 ? 0 : term.length() < 6 ? 1 : 2;
+    }
+
+    /**
+     * Levenshtein distance between {@code a} and {@code b}, or {@code max + 1} as soon as it is known to exceed {@code max}.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                final int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            final int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    public static class Results<T> {
+
+        public final int total;
+        public final List<T> hits;
+
+        Results(int total, List<T> hits) {
+            this.total = total;
+            this.hits = hits;
+        }
+    }
+
+    private static class Posting {
+        final int doc;
+        final int field;
+        final int frequency;
+
+        Posting(int doc, int field, int frequency) {
+            this.doc = doc;
+            this.field = field;
+            this.frequency = frequency;
+        }
+    }
+
+    public static class Builder<T> {
+
+        private final float[] boosts;
+        private final List<T> documents = new ArrayList<>();
+        private final List<int[]> fieldLengths = new ArrayList<>();
+        private final Map<String, List<Posting>> postings = new HashMap<>();
+
+        /**
+         * @param boosts boost of each field, fields being identified by their position
+         */
+        public Builder(float... boosts) {
+            this.boosts = Arrays.copyOf(boosts, boosts.length);
+        }
+
+        /**
+         * Adds a document, with the texts of each field in the order of the boosts. A field may have several texts, or none.
+         */
+        public Builder<T> add(T document, List<List<String>> fieldTexts) {
+            final int doc = documents.size();
+            documents.add(document);
+            final int[] lengths = new int[boosts.length];
+            for (int field = 0; field < boosts.length && field < fieldTexts.size(); field++) {
+                final Map<String, Integer> frequencies = new HashMap<>();
+                for (String text : fieldTexts.get(field)) {
+                    if (text == null) {
+                        continue;
+                    }
+                    for (String token : Analyzer.tokens(text)) {
+                        frequencies.merge(token, 1, Integer::sum);
+                        lengths[field]++;
+                    }
+                }
+                final int f = field;
+                frequencies.forEach((term, frequency) ->
+                        postings.computeIfAbsent(term, t -> new ArrayList<>()).add(new Posting(doc, f, frequency)));
+            }
+            fieldLengths.add(lengths);
+            return this;
+        }
+
+        public InvertedIndex<T> build() {
+            return new InvertedIndex<>(new ArrayList<>(documents), boosts, new HashMap<>(postings), fieldLengths.toArray(new int[0][]));
+        }
+    }
+}
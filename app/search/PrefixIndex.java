@@ -0,0 +1,111 @@
+package search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable weighted prefix index, in the manner of an Elasticsearch completion field.
+ * Inputs are normalized and kept in a single sorted array, so a lookup is a binary search followed by a scan of the
+ * matching range. Each item is returned at most once, ranked by the weight of its best matching input.
+ */
+public class PrefixIndex<T> {
+
+    private final String[] keys;
+    private final int[] weights;
+    private final int[] itemIds;
+    private final List<T> items;
+
+    private PrefixIndex(String[] keys, int[] weights, int[] itemIds, List<T> items) {
+        this.keys = keys;
+        this.weights = weights;
+        this.itemIds = itemIds;
+        this.items = items;
+    }
+
+    public List<T> lookup(String prefix, int limit) {
+        final String normalized = Analyzer.normalize(prefix);
+        if (normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Map<Integer, Integer> bestWeights = new HashMap<>();
+        for (int i = lowerBound(normalized); i < keys.length && keys[i].startsWith(normalized); i++) {
+            bestWeights.merge(itemIds[i], weights[i], Math::max);
+        }
+        return bestWeights.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<Integer, Integer>>comparingInt(Map.Entry::getValue).reversed()
+                        .thenComparingInt(Map.Entry::getKey))
+                .limit(limit)
+                .map(e -> items.get(e.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public static class Builder<T> {
+
+        private final List<T> items = new ArrayList<>();
+        private final List<String> keys = new ArrayList<>();
+        private final List<Integer> weights = new ArrayList<>();
+        private final List<Integer> itemIds = new ArrayList<>();
+
+        /**
+         * Adds an item and returns the id with which its inputs must be added.
+         */
+        public int addItem(T item) {
+            items.add(item);
+            return items.size() - 1;
+        }
+
+        public Builder<T> addInput(int itemId, String input, int weight) {
+            if (input == null) {
+                return this;
+            }
+            final String key = Analyzer.normalize(input);
+            if (!key.isEmpty()) {
+                keys.add(key);
+                weights.add(weight);
+                itemIds.add(itemId);
+            }
+            return this;
+        }
+
+        public PrefixIndex<T> build() {
+            final Integer[] order = new Integer[keys.size()];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparing(keys::get));
+            final String[] sortedKeys = new String[order.length];
+            final int[] sortedWeights = new int[order.length];
+            final int[] sortedItemIds = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedKeys[i] = keys.get(order[i]);
+                sortedWeights[i] = weights.get(order[i]);
+                sortedItemIds[i] = itemIds.get(order[i]);
+            }
+            return new PrefixIndex<>(sortedKeys, sortedWeights, sortedItemIds, new ArrayList<>(items));
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package services;
+
+import akka.actor.ActorSystem;
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoServerException;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import env.ChangesConfiguration;
+import env.MarvelHeroesConfiguration;
+import models.Hero;
+import org.bson.BsonDocument;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import play.Logger;
+import play.inject.ApplicationLifecycle;
+import repository.MongoDBRepository;
+import repository.RedisLocks;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Watches the heroes collection with a MongoDB change stream and hands every change to {@link Invalidations}.
+ * With {@code changes.reindex}, changed heroes are also upserted into Elasticsearch, deletions triggering a full
+ * reindex since they do not carry the hero id. Every node watches the stream, so the node applying a change to
+ * Elasticsearch is the one claiming it first in Redis. The stream resumes where it stopped after an error, or from
+ * now on once that point fell off the oplog.
+ */
+@Singleton
+public class HeroChangeListener {
+
+    private static final Logger.ALogger LOGGER = Logger.of("HeroChangeListener");
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(1);
+    // Returned by standalone servers, which have no oplog to watch
+    private static final int CHANGE_STREAMS_UNSUPPORTED = 40573;
+    // The resume token fell off the oplog, the stream cannot be resumed from it
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+    private static final int CHANGE_STREAM_FATAL_ERROR = 280;
+    private static final String CLAIM_PREFIX = "heroes:change:";
+    // Long enough for the slowest node to see the change after the first one claimed it
+    private static final Duration CLAIM_TTL = Duration.ofHours(1);
+
+    private final MongoDBRepository mongoDBRepository;
+    private final Invalidations invalidations;
+    private final HeroReindexer heroReindexer;
+    private final RedisLocks redisLocks;
+    private final ChangesConfiguration changesConfiguration;
+    private final ActorSystem actorSystem;
+
+    private volatile Optional<BsonDocument> resumeToken = Optional.empty();
+    private volatile Subscription subscription;
+    private volatile boolean stopped;
+
+    @Inject
+    public HeroChangeListener(MongoDBRepository mongoDBRepository, Invalidations invalidations, HeroReindexer heroReindexer, RedisLocks redisLocks, MarvelHeroesConfiguration configuration, ActorSystem actorSystem, ApplicationLifecycle lifecycle) {
+        this.mongoDBRepository = mongoDBRepository;
+        this.invalidations = invalidations;
+        this.heroReindexer = heroReindexer;
+        this.redisLocks = redisLocks;
+        this.changesConfiguration = configuration.changesConfiguration;
+        this.actorSystem = actorSystem;
+
+        if (changesConfiguration.enabled) {
+            watch(changesConfiguration.retryBackoff);
+            lifecycle.addStopHook(() -> {
+                stopped = true;
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+                return CompletableFuture.completedFuture(null);
+            });
+        }
+    }
+
+    private void watch(Duration backoff) {
+        mongoDBRepository.heroChanges(resumeToken).subscribe(new Subscriber<ChangeStreamDocument<Hero>>() {
+            // Back to the base backoff once a change came through, the stream having recovered
+            private Duration retryBackoff = backoff;
+
+            @Override
+            public void onSubscribe(Subscription s) {
+                subscription = s;
+                s.request(1);
+            }
+
+            @Override
+            public void onNext(ChangeStreamDocument<Hero> change) {
+                try {
+                    handle(change);
+                } catch (RuntimeException e) {
+                    LOGGER.error("Error while handling hero change: " + e.getMessage(), e);
+                }
+                resumeToken = Optional.ofNullable(change.getResumeToken());
+                retryBackoff = changesConfiguration.retryBackoff;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (t instanceof MongoCommandException && ((MongoCommandException) t).getErrorCode() == CHANGE_STREAMS_UNSUPPORTED) {
+                    LOGGER.warn("MongoDB does not support change streams, heroes changes will not be watched: " + t.getMessage());
+                    return;
+                }
+                if (t instanceof MongoServerException && historyLost(((MongoServerException) t).getCode())) {
+                    // Changes were missed: drop everything derived from heroes and watch from now on
+                    LOGGER.warn("Heroes changes history lost, watching from now on: " + t.getMessage());
+                    resumeToken = Optional.empty();
+                    invalidations.allHeroesChanged();
+                    if (changesConfiguration.reindex) {
+                        heroReindexer.reindex();
+                    }
+                    retry(changesConfiguration.retryBackoff);
+                    return;
+                }
+                LOGGER.error("Error while watching heroes changes, retrying in " + retryBackoff.toMillis() + "ms: " + t.getMessage(), t);
+                retry(retryBackoff);
+            }
+
+            @Override
+            public void onComplete() {
+                // The stream is closed when the collection is dropped or renamed
+                LOGGER.warn("Heroes change stream closed, watching again");
+                resumeToken = Optional.empty();
+                invalidations.allHeroesChanged();
+                retry(changesConfiguration.retryBackoff);
+            }
+        });
+    }
+
+    private static boolean historyLost(int code) {
+        return code == CHANGE_STREAM_HISTORY_LOST || code == CHANGE_STREAM_FATAL_ERROR;
+    }
+
+    private void retry(Duration backoff) {
+        if (stopped) {
+            return;
+        }
+        final Duration next = backoff.multipliedBy(2).compareTo(MAX_RETRY_BACKOFF) > 0 ? MAX_RETRY_BACKOFF : backoff.multipliedBy(2);
+        actorSystem.scheduler().scheduleOnce(backoff, () -> watch(next), actorSystem.dispatcher());
+    }
+
+    private void handle(ChangeStreamDocument<Hero> change) {
+        final Hero hero = change.getFullDocument();
+        switch (change.getOperationType()) {
+            case INSERT:
+            case UPDATE:
+            case REPLACE:
+                if (hero == null) {
+                    // Deleted again before its full document could be looked up
+                    invalidations.allHeroesChanged();
+                    return;
+                }
+                invalidations.heroChanged(hero.id);
+                if (changesConfiguration.reindex) {
+                    claim(change).thenAccept(claimed -> {
+                        if (claimed) {
+                            upsert(hero);
+                        }
+                    });
+                }
+                break;
+            case DELETE:
+                invalidations.allHeroesChanged();
+                if (changesConfiguration.reindex) {
+                    claim(change).thenAccept(claimed -> {
+                        if (claimed) {
+                            heroReindexer.reindex();
+                        }
+                    });
+                }
+                break;
+            default:
+                // Drops, renames and invalidations close the stream, see onComplete
+                break;
+        }
+    }
+
+    /**
+     * Whether this node is the one to apply {@code change} to Elasticsearch. Without Redis no node is, the next
+     * reindex catching up.
+     */
+    private CompletionStage<Boolean> claim(ChangeStreamDocument<Hero> change) {
+        return redisLocks.tryLock(CLAIM_PREFIX + change.getResumeToken().toJson(), CLAIM_TTL);
+    }
+
+    private void upsert(Hero hero) {
+        heroReindexer.indexChangedHero(hero)
+                .whenComplete((result, e) -> {
+                    if (e != null || result.failed > 0 || !result.retryable.isEmpty()) {
+                        LOGGER.error("Could not reindex hero " + hero.id, e);
+                    }
+                });
+    }
+}
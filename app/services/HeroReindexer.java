@@ -0,0 +1,211 @@
+package services;
+
+import akka.actor.ActorSystem;
+import akka.stream.Materializer;
+import akka.stream.javadsl.Sink;
+import env.MarvelHeroesConfiguration;
+import env.ReindexConfiguration;
+import models.Hero;
+import models.ReindexReport;
+import play.Logger;
+import repository.ElasticRepository;
+import repository.MongoDBRepository;
+import repository.RedisRepository;
+import repository.RedisLocks;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Rebuilds the Elasticsearch heroes index from MongoDB without downtime: heroes are streamed into a fresh index
+ * with bounded concurrent bulk requests, then the search alias is moved to it in one atomic step. A Redis lock keeps
+ * other nodes from reindexing at the same time.
+ */
+@Singleton
+public class HeroReindexer {
+
+    private static final Logger.ALogger LOGGER = Logger.of("HeroReindexer");
+    static final String LOCK = "heroes:reindex";
+
+    private final MongoDBRepository mongoDBRepository;
+    private final ElasticRepository elasticRepository;
+    private final RedisRepository redisRepository;
+    private final Invalidations invalidations;
+    private final RedisLocks redisLocks;
+    private final ReindexConfiguration reindexConfiguration;
+    private final ActorSystem actorSystem;
+    private final Materializer materializer;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Inject
+    public HeroReindexer(MongoDBRepository mongoDBRepository, ElasticRepository elasticRepository, RedisRepository redisRepository, Invalidations invalidations, RedisLocks redisLocks, MarvelHeroesConfiguration configuration, ActorSystem actorSystem, Materializer materializer) {
+        this.mongoDBRepository = mongoDBRepository;
+        this.elasticRepository = elasticRepository;
+        this.redisRepository = redisRepository;
+        this.invalidations = invalidations;
+        this.redisLocks = redisLocks;
+        this.reindexConfiguration = configuration.reindexConfiguration;
+        this.actorSystem = actorSystem;
+        this.materializer = materializer;
+    }
+
+    /**
+     * Returns empty if a reindex is already running, on this node or another one. The alias is left untouched if any
+     * hero could not be indexed.
+     */
+    public CompletionStage<Optional<ReindexReport>> reindex() {
+        if (!running.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return redisLocks.tryLock(LOCK, reindexConfiguration.lockTtl)
+                .thenCompose(locked -> {
+                    if (!locked) {
+                        LOGGER.info("Heroes are being reindexed by another node");
+                        running.set(false);
+                        return CompletableFuture.completedFuture(Optional.<ReindexReport>empty());
+                    }
+                    return redisRepository.clearPendingReindexHeroes().thenCompose(cleared -> reindexLocked());
+                });
+    }
+
+    /**
+     * Upserts a changed hero into the index searches read. While a reindex runs, on any node, the hero is also queued
+     * to be indexed again once the alias moved: the new index may have read it before the change, and the upsert
+     * goes to the index about to be replaced.
+     */
+    public CompletionStage<ElasticRepository.BulkResult> indexChangedHero(Hero hero) {
+        return redisLocks.isLocked(LOCK)
+                .thenCompose(reindexing -> reindexing ? redisRepository.addPendingReindexHero(hero.id) : CompletableFuture.completedFuture(false))
+                .thenCompose(queued -> elasticRepository.bulkIndexHeroes(reindexConfiguration.alias, Collections.singletonList(hero)));
+    }
+
+    private CompletionStage<Optional<ReindexReport>> reindexLocked() {
+        final long start = System.currentTimeMillis();
+        final String alias = reindexConfiguration.alias;
+        final String index = alias + "-" + start;
+        LOGGER.info("Reindexing heroes into " + index);
+        // Once the alias points at the new index, deleting it would take searches down with it
+        final AtomicBoolean swapped = new AtomicBoolean();
+        return elasticRepository.createHeroesIndex(index)
+                .thenCompose(v -> mongoDBRepository.heroesSource()
+                        .grouped(reindexConfiguration.batchSize)
+                        .mapAsyncUnordered(reindexConfiguration.parallelism, batch -> indexBatch(index, batch, 0))
+                        .runWith(Sink.fold(Counts.ZERO, Counts::plus), materializer))
+                .thenCompose(counts -> {
+                    if (counts.failed > 0) {
+                        LOGGER.error(counts.failed + " heroes could not be indexed, keeping the current index");
+                        return elasticRepository.deleteIndex(index)
+                                .thenApply(v -> new ReindexReport(index, counts.indexed, counts.failed, false, System.currentTimeMillis() - start));
+                    }
+                    return moveAlias(alias, index, swapped)
+                            .thenApply(v -> new ReindexReport(index, counts.indexed, counts.failed, true, System.currentTimeMillis() - start));
+                })
+                .thenApply(report -> {
+                    LOGGER.info("Reindexed " + report.indexed + " heroes into " + index + " in " + report.durationMillis + "ms");
+                    return Optional.of(report);
+                })
+                .whenComplete((report, e) -> {
+                    if (e != null) {
+                        LOGGER.error("Error while reindexing heroes: " + e.getMessage(), e);
+                        if (!swapped.get()) {
+                            // Best effort, the index may not even have been created
+                            elasticRepository.deleteIndex(index).exceptionally(error -> null);
+                        }
+                    }
+                    redisLocks.unlock(LOCK).thenRun(() -> running.set(false));
+                });
+    }
+
+    /**
+     * Moves {@code alias} to {@code index}, indexes the heroes changed meanwhile, then deletes the indices it pointed
+     * at. The reindex has succeeded once the alias moved: what fails afterwards is only worth a warning.
+     */
+    private CompletionStage<Void> moveAlias(String alias, String index, AtomicBoolean swapped) {
+        return elasticRepository.aliasedIndices(alias)
+                .thenCompose(previous -> (previous.isEmpty() ? elasticRepository.indexExists(alias) : CompletableFuture.completedFuture(false))
+                        .thenCompose(replaceIndex -> elasticRepository.swapAlias(alias, index, previous, replaceIndex))
+                        .thenCompose(v -> {
+                            swapped.set(true);
+                            return indexPendingHeroes(index);
+                        })
+                        .thenCompose(v -> {
+                            invalidations.searchesChanged();
+                            return CompletableFuture.allOf(previous.stream()
+                                    .map(previousIndex -> elasticRepository.deleteIndex(previousIndex)
+                                            .exceptionally(e -> {
+                                                LOGGER.warn("Could not delete previous index " + previousIndex + ": " + e.getMessage());
+                                                return null;
+                                            }))
+                                    .map(CompletionStage::toCompletableFuture)
+                                    .toArray(CompletableFuture[]::new));
+                        }));
+    }
+
+    private CompletionStage<Void> indexPendingHeroes(String index) {
+        return redisRepository.takePendingReindexHeroes()
+                .thenCompose(heroIds -> heroIds.isEmpty() ? CompletableFuture.completedFuture(Collections.<Hero>emptyList()) : mongoDBRepository.heroesByIds(heroIds))
+                .thenCompose(heroes -> heroes.isEmpty() ? CompletableFuture.completedFuture(Counts.ZERO) : indexBatch(index, heroes, 0))
+                .<Void>thenApply(counts -> {
+                    if (counts.failed > 0) {
+                        LOGGER.warn(counts.failed + " heroes changed during the reindex could not be indexed again");
+                    }
+                    return null;
+                })
+                .exceptionally(e -> {
+                    LOGGER.warn("Could not index the heroes changed during the reindex: " + e.getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Sends {@code batch}, then retries what Elasticsearch rejected for overload, or the whole batch on a transport
+     * error, with an exponential backoff.
+     */
+    private CompletionStage<Counts> indexBatch(String index, List<Hero> batch, int attempt) {
+        return elasticRepository.bulkIndexHeroes(index, batch)
+                .<CompletionStage<Counts>>handle((result, e) -> {
+                    final List<Hero> retryable = e == null ? result.retryable : batch;
+                    final Counts counts = e == null ? new Counts(result.indexed, result.failed) : Counts.ZERO;
+                    if (retryable.isEmpty()) {
+                        return CompletableFuture.completedFuture(counts);
+                    }
+                    if (attempt >= reindexConfiguration.maxRetries) {
+                        LOGGER.error("Giving up on " + retryable.size() + " heroes after " + attempt + " retries", e);
+                        return CompletableFuture.completedFuture(counts.plus(new Counts(0, retryable.size())));
+                    }
+                    final Duration backoff = reindexConfiguration.retryBackoff.multipliedBy(1L << attempt);
+                    return after(backoff, () -> indexBatch(index, retryable, attempt + 1)).thenApply(counts::plus);
+                })
+                .thenCompose(next -> next);
+    }
+
+    private <T> CompletionStage<T> after(Duration delay, Supplier<CompletionStage<T>> next) {
+        final CompletableFuture<Void> timer = new CompletableFuture<>();
+        actorSystem.scheduler().scheduleOnce(delay, () -> timer.complete(null), actorSystem.dispatcher());
+        return timer.thenCompose(v -> next.get());
+    }
+
+    private static final class Counts {
+        static final Counts ZERO = new Counts(0, 0);
+
+        final long indexed;
+        final long failed;
+
+        Counts(long indexed, long failed) {
+            this.indexed = indexed;
+            this.failed = failed;
+        }
+
+        Counts plus(Counts other) {
+            return new Counts(indexed + other.indexed, failed + other.failed);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package services;
+
+import models.HeroVisits;
+import models.StatItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free per-hero visit counters, drained periodically into Redis.
+ * Counters are striped ({@link LongAdder}) so that concurrent visits to a popular hero do not contend.
+ */
+public class HeroVisitCounters {
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public void increment(StatItem statItem, long visitedAt) {
+        final Counter counter = counters.computeIfAbsent(statItem.slug, slug -> new Counter(statItem));
+        counter.hits.increment();
+        counter.lastVisitedAt.accumulateAndGet(visitedAt, Math::max);
+    }
+
+    /**
+     * Returns the visits counted since the previous drain and resets the counters.
+     * Visits counted concurrently are either returned or kept for the next drain, never lost.
+     */
+    public List<HeroVisits> drain() {
+        final List<HeroVisits> visits = new ArrayList<>();
+        counters.values().forEach(counter -> {
+            final long hits = counter.hits.sumThenReset();
+            if (hits > 0) {
+                visits.add(new HeroVisits(counter.statItem, hits, counter.lastVisitedAt.get()));
+            }
+        });
+        return visits;
+    }
+
+    private static class Counter {
+        final StatItem statItem;
+        final LongAdder hits = new LongAdder();
+        final AtomicLong lastVisitedAt = new AtomicLong();
+
+        Counter(StatItem statItem) {
+            this.statItem = statItem;
+        }
+    }
+}
@@ -1,18 +1,27 @@
 package services;
 
+import cache.HeroCache;
+import cache.SearchCache;
+import env.MarvelHeroesConfiguration;
+import env.SearchConfiguration;
 import models.Hero;
 import models.PaginatedResults;
+import models.SearchCursor;
 import models.SearchedHero;
 import models.StatItem;
 import repository.ElasticRepository;
 import repository.MongoDBRepository;
-import repository.RedisRepository;
+import search.EmbeddedHeroSearch;
+import search.HeroSuggester;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
 
 @Singleton
 public class Heroes {
@@ -20,28 +29,89 @@ public class Heroes {
 
     private final MongoDBRepository mongoDBRepository;
     private final ElasticRepository elasticRepository;
-    private final RedisRepository redisRepository;
+    private final VisitRecorder visitRecorder;
+    private final HeroCache heroCache;
+    private final SearchCache searchCache;
+    private final HeroSuggester heroSuggester;
+    private final EmbeddedHeroSearch embeddedHeroSearch;
+    private final boolean embeddedSearch;
 
 
     @Inject
-    public Heroes(ElasticRepository elasticRepository, MongoDBRepository mongoDBRepository, RedisRepository redisRepository) {
+    public Heroes(ElasticRepository elasticRepository, MongoDBRepository mongoDBRepository, VisitRecorder visitRecorder, HeroCache heroCache, SearchCache searchCache, HeroSuggester heroSuggester, EmbeddedHeroSearch embeddedHeroSearch, MarvelHeroesConfiguration configuration) {
         this.elasticRepository = elasticRepository;
         this.mongoDBRepository = mongoDBRepository;
-        this.redisRepository = redisRepository;
+        this.visitRecorder = visitRecorder;
+        this.heroCache = heroCache;
+        this.searchCache = searchCache;
+        this.heroSuggester = heroSuggester;
+        this.embeddedHeroSearch = embeddedHeroSearch;
+        this.embeddedSearch = configuration.searchConfiguration.engine == SearchConfiguration.Engine.EMBEDDED;
     }
 
     public CompletionStage<PaginatedResults<SearchedHero>> searchHeroes(String input, int size, int page) {
-        return elasticRepository.searchHeroes(input, size, page);
+        // The same query is cached and sent, so "iron " cannot be searched differently from the "iron" it is cached as
+        final String query = SearchCache.normalize(input);
+        if (embeddedSearch) {
+            return embeddedHeroSearch.searchHeroes(query, size, page)
+                    .<CompletionStage<PaginatedResults<SearchedHero>>>map(CompletableFuture::completedFuture)
+                    .orElseGet(() -> CompletableFuture.completedFuture(new PaginatedResults<>(0, page, 1, Collections.emptyList())));
+        }
+        return searchCache.get(SearchCache.key(query, size, page), key -> elasticRepository.searchHeroes(query, size, page))
+                // Past the cache, so that a failed search is not kept as an empty page
+                .exceptionally(e -> new PaginatedResults<>(1, 1, 1, Collections.emptyList()));
+    }
+
+    /**
+     * Cursor-based variant of {@link #searchHeroes}. Not cached since each cursor is only read once; the embedded
+     * engine has no cursor support and falls back to {@code page}.
+     */
+    public CompletionStage<PaginatedResults<SearchedHero>> searchHeroesAfter(String input, int size, int page, Optional<SearchCursor> cursor) {
+        if (embeddedSearch) {
+            return searchHeroes(input, size, page);
+        }
+        return elasticRepository.searchHeroesAfter(SearchCache.normalize(input), size, page, cursor);
     }
 
     public CompletionStage<List<SearchedHero>> suggest(String input) {
-        return elasticRepository.suggest(input);
+        return heroSuggester.suggest(input)
+                .<CompletionStage<List<SearchedHero>>>map(CompletableFuture::completedFuture)
+                .orElseGet(() -> elasticRepository.suggest(input));
     }
 
     public CompletionStage<Optional<Hero>> hero(String heroId) {
-        return mongoDBRepository.heroById(heroId).thenApply(maybeHero -> {
-            maybeHero.ifPresent(hero -> redisRepository.addNewHeroVisited(StatItem.fromHero(hero)));
+        return heroCache.get(heroId, mongoDBRepository::heroById).thenApply(maybeHero -> {
+            maybeHero.ifPresent(hero -> visitRecorder.record(StatItem.fromHero(hero)));
             return maybeHero;
         });
     }
+
+    /**
+     * Returns the heroes matching {@code heroIds} in the same order, skipping unknown ids.
+     * Cached heroes are served from memory and the others are fetched in a single query.
+     */
+    public CompletionStage<List<Hero>> heroes(List<String> heroIds) {
+        return heroCache.getAll(heroIds, ids -> mongoDBRepository.heroesByIds(ids)
+                .thenApply(heroes -> heroes.stream().collect(Collectors.toMap(hero -> hero.id, Optional::of, (h1, h2) -> h1))))
+                .thenApply(heroesById -> heroIds.stream()
+                        .map(heroesById::get)
+                        .filter(maybeHero -> maybeHero != null && maybeHero.isPresent())
+                        .map(Optional::get)
+                        .collect(Collectors.toList()));
+    }
+
+    public void invalidateHero(String heroId) {
+        heroCache.invalidate(heroId);
+    }
+
+    public void invalidateAllHeroes() {
+        heroCache.invalidateAll();
+    }
+
+    /**
+     * To be called whenever the heroes index is reloaded.
+     */
+    public void invalidateSearches() {
+        searchCache.invalidateAll();
+    }
 }
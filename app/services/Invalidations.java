@@ -0,0 +1,116 @@
+package services;
+
+import akka.actor.ActorSystem;
+import env.MarvelHeroesConfiguration;
+import env.SearchConfiguration;
+import models.Invalidation;
+import play.Logger;
+import repository.InvalidationBus;
+import search.EmbeddedHeroSearch;
+import search.HeroSuggester;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drops everything derived from heroes once they change, so that caches can keep long TTLs.
+ * Cached heroes and searches are invalidated at once, while stats and in-process indexes, which are rebuilt from
+ * the whole collection, are refreshed a single time once changes have settled for {@code changes.debounce}.
+ * Every node follows the change stream itself, so hero changes are only applied locally; invalidations that start on
+ * a single node, such as a reindex moving the search alias, are also broadcast to the others through the
+ * {@link InvalidationBus}.
+ */
+@Singleton
+public class Invalidations {
+
+    private static final Logger.ALogger LOGGER = Logger.of("Invalidations");
+
+    private final Heroes heroes;
+    private final StatItemLookup statItemLookup;
+    private final Stats stats;
+    private final HeroSuggester heroSuggester;
+    private final EmbeddedHeroSearch embeddedHeroSearch;
+    private final ActorSystem actorSystem;
+    private final Duration debounce;
+    private final boolean inProcessSuggest;
+    private final boolean embeddedSearch;
+    private final InvalidationBus invalidationBus;
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    @Inject
+    public Invalidations(Heroes heroes, StatItemLookup statItemLookup, Stats stats, HeroSuggester heroSuggester, EmbeddedHeroSearch embeddedHeroSearch, InvalidationBus invalidationBus, MarvelHeroesConfiguration configuration, ActorSystem actorSystem) {
+        this.heroes = heroes;
+        this.statItemLookup = statItemLookup;
+        this.stats = stats;
+        this.heroSuggester = heroSuggester;
+        this.embeddedHeroSearch = embeddedHeroSearch;
+        this.actorSystem = actorSystem;
+        this.debounce = configuration.changesConfiguration.debounce;
+        this.inProcessSuggest = configuration.suggestConfiguration.inProcess;
+        this.embeddedSearch = configuration.searchConfiguration.engine == SearchConfiguration.Engine.EMBEDDED;
+        this.invalidationBus = invalidationBus;
+        invalidationBus.subscribe(this::apply);
+    }
+
+    public void heroChanged(String heroId) {
+        apply(Invalidation.hero(heroId));
+    }
+
+    /**
+     * For changes that cannot be tied to a hero id, such as deletions.
+     */
+    public void allHeroesChanged() {
+        apply(Invalidation.allHeroes());
+    }
+
+    /**
+     * For when the search index changed as a whole, heroes themselves being unchanged.
+     */
+    public void searchesChanged() {
+        publish(Invalidation.searches());
+    }
+
+    private void publish(Invalidation invalidation) {
+        apply(invalidation);
+        invalidationBus.publish(invalidation);
+    }
+
+    private void apply(Invalidation invalidation) {
+        switch (invalidation.kind) {
+            case HERO:
+                heroes.invalidateHero(invalidation.key);
+                statItemLookup.invalidate(invalidation.key);
+                heroes.invalidateSearches();
+                scheduleRebuild();
+                break;
+            case ALL_HEROES:
+                heroes.invalidateAllHeroes();
+                statItemLookup.invalidateAll();
+                heroes.invalidateSearches();
+                scheduleRebuild();
+                break;
+            case SEARCHES:
+                heroes.invalidateSearches();
+                break;
+        }
+    }
+
+    private void scheduleRebuild() {
+        if (!rebuildScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        actorSystem.scheduler().scheduleOnce(debounce, () -> {
+            rebuildScheduled.set(false);
+            LOGGER.info("Heroes changed, rebuilding stats and in-process indexes");
+            stats.refreshStats();
+            if (inProcessSuggest) {
+                heroSuggester.rebuild();
+            }
+            if (embeddedSearch) {
+                embeddedHeroSearch.rebuild().thenRun(heroes::invalidateSearches);
+            }
+        }, actorSystem.dispatcher());
+    }
+}
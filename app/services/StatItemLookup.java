@@ -0,0 +1,53 @@
+package services;
+
+import cache.AsyncCache;
+import env.CacheConfiguration;
+import env.MarvelHeroesConfiguration;
+import metrics.Metrics;
+import models.StatItem;
+import repository.MongoDBRepository;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves hero ids stored in Redis to the {@link StatItem} displayed for them.
+ * Items are kept locally once seen, and the unknown ones are fetched as hero summaries from MongoDB.
+ */
+@Singleton
+public class StatItemLookup {
+
+    private final AsyncCache<String, StatItem> statItems;
+    private final MongoDBRepository mongoDBRepository;
+
+    @Inject
+    public StatItemLookup(MongoDBRepository mongoDBRepository, MarvelHeroesConfiguration configuration, Metrics metrics) {
+        final CacheConfiguration cacheConfiguration = configuration.statItemCacheConfiguration;
+        this.statItems = new AsyncCache<>("statItems", cacheConfiguration.maxSize, cacheConfiguration.ttl);
+        this.mongoDBRepository = mongoDBRepository;
+        metrics.registerCache(statItems);
+    }
+
+    public void register(StatItem statItem) {
+        statItems.put(statItem.slug, statItem);
+    }
+
+    public void invalidate(String heroId) {
+        statItems.invalidate(heroId);
+    }
+
+    public void invalidateAll() {
+        statItems.invalidateAll();
+    }
+
+    public CompletionStage<Map<String, StatItem>> resolve(Collection<String> heroIds) {
+        return statItems.getAll(heroIds, ids -> mongoDBRepository.heroSummariesByIds(ids)
+                .thenApply(summaries -> summaries.stream()
+                        .map(StatItem::fromHeroSummary)
+                        .collect(Collectors.toMap(statItem -> statItem.slug, statItem -> statItem, (s1, s2) -> s1))));
+    }
+}
@@ -1,47 +1,112 @@
 package services;
 
+import cache.AsyncCache;
+import env.CacheConfiguration;
+import env.MarvelHeroesConfiguration;
+import metrics.Metrics;
 import models.ItemCount;
 import models.StatItem;
+import models.StatsSnapshot;
 import models.TopStatItem;
 import models.YearAndUniverseStat;
+import play.Logger;
 import repository.MongoDBRepository;
 import repository.RedisRepository;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.stream.Collectors;
 
 @Singleton
 public class Stats {
 
+    private static final Logger.ALogger LOGGER = Logger.of("Stats");
+
     private final RedisRepository redisRepository;
     private final MongoDBRepository mongoDBRepository;
+    private final StatsSnapshots statsSnapshots;
+    private final StatItemLookup statItemLookup;
+    private final AsyncCache<Integer, List<TopStatItem>> topsHeroesCache;
+    private final AsyncCache<Integer, List<StatItem>> lastsHeroesCache;
 
     @Inject
-    public Stats(RedisRepository redisRepository, MongoDBRepository mongoDBRepository) {
+    public Stats(RedisRepository redisRepository, MongoDBRepository mongoDBRepository, StatsSnapshots statsSnapshots, StatItemLookup statItemLookup, MarvelHeroesConfiguration configuration, Metrics metrics) {
         this.redisRepository = redisRepository;
         this.mongoDBRepository = mongoDBRepository;
+        this.statsSnapshots = statsSnapshots;
+        this.statItemLookup = statItemLookup;
+        final CacheConfiguration widgetsConfiguration = configuration.widgetCacheConfiguration;
+        this.topsHeroesCache = new AsyncCache<>("topsHeroes", widgetsConfiguration.maxSize, widgetsConfiguration.ttl);
+        this.lastsHeroesCache = new AsyncCache<>("lastsHeroes", widgetsConfiguration.maxSize, widgetsConfiguration.ttl);
+        metrics.registerCache(topsHeroesCache);
+        metrics.registerCache(lastsHeroesCache);
     }
 
+    /**
+     * Top visited heroes, cached for a short time so that a burst of home page hits results in a single Redis read.
+     */
     public CompletionStage<List<TopStatItem>> topsHeroes(int size) {
-        return redisRepository.topHeroesVisited(size);
+        return topsHeroesCache.get(size, this::loadTopsHeroes);
     }
 
+    /**
+     * Last visited heroes, cached like {@link #topsHeroes}.
+     */
     public CompletionStage<List<StatItem>> lastsHeroes(int size) {
-        return redisRepository.lastHeroesVisited(size);
+        return lastsHeroesCache.get(size, this::loadLastsHeroes);
+    }
+
+    private CompletionStage<List<TopStatItem>> loadTopsHeroes(int size) {
+        if (!redisRepository.compactMembers()) {
+            return redisRepository.topHeroesVisited(size);
+        }
+        return redisRepository.topHeroIdsVisited(size)
+                .thenCompose(hits -> statItemLookup.resolve(hits.keySet())
+                        .thenApply(statItems -> hits.entrySet().stream()
+                                .filter(hit -> statItems.containsKey(hit.getKey()))
+                                .map(hit -> new TopStatItem(statItems.get(hit.getKey()), hit.getValue()))
+                                .collect(Collectors.toList())));
+    }
+
+    private CompletionStage<List<StatItem>> loadLastsHeroes(int size) {
+        if (!redisRepository.compactMembers()) {
+            return redisRepository.lastHeroesVisited(size);
+        }
+        return redisRepository.lastHeroIdsVisited(size)
+                .thenCompose(ids -> statItemLookup.resolve(ids)
+                        .thenApply(statItems -> ids.stream()
+                                .filter(statItems::containsKey)
+                                .map(statItems::get)
+                                .collect(Collectors.toList())));
     }
 
     public CompletionStage<List<ItemCount>> byUniverse() {
-        return mongoDBRepository.byUniverse();
+        return statsSnapshots.snapshot().thenApply(snapshot -> snapshot.byUniverse);
     }
 
     public CompletionStage<List<YearAndUniverseStat>> byYearAndUniverse() {
-        return mongoDBRepository.countByYearAndUniverse();
+        return statsSnapshots.snapshot().thenApply(snapshot -> snapshot.byYearAndUniverse);
     }
 
     public CompletionStage<List<ItemCount>> topPowers(int top) {
-        return mongoDBRepository.topPowers(top);
+        if (top > statsSnapshots.topPowersSize()) {
+            return mongoDBRepository.topPowers(top)
+                    .exceptionally(e -> {
+                        LOGGER.error("Error while computing top " + top + " powers, serving the snapshot ones: " + e.getMessage(), e);
+                        return null;
+                    })
+                    .thenCompose(topPowers -> topPowers != null
+                            ? CompletableFuture.completedFuture(topPowers)
+                            : statsSnapshots.snapshot().thenApply(snapshot -> snapshot.topPowers));
+        }
+        return statsSnapshots.snapshot().thenApply(snapshot -> snapshot.topPowers.subList(0, Math.min(top, snapshot.topPowers.size())));
+    }
+
+    public CompletionStage<StatsSnapshot> refreshStats() {
+        return statsSnapshots.refresh();
     }
 
 }
@@ -0,0 +1,103 @@
+package services;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import env.MarvelHeroesConfiguration;
+import env.StatsConfiguration;
+import models.ItemCount;
+import models.StatsSnapshot;
+import models.YearAndUniverseStat;
+import play.Logger;
+import play.inject.ApplicationLifecycle;
+import repository.MongoDBRepository;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Keeps the MongoDB aggregations behind the stats page in memory.
+ * The snapshot is computed at startup, then refreshed on schedule or on {@link #refresh()}.
+ * Readers always get the current snapshot, even when stale; only the very first readers wait for the initial computation.
+ * A failed refresh keeps the current snapshot.
+ */
+@Singleton
+public class StatsSnapshots {
+
+    private static final Logger.ALogger LOGGER = Logger.of("StatsSnapshots");
+
+    private final MongoDBRepository mongoDBRepository;
+    private final StatsConfiguration statsConfiguration;
+
+    private final AtomicReference<StatsSnapshot> current = new AtomicReference<>();
+    private final AtomicReference<CompletableFuture<StatsSnapshot>> refreshing = new AtomicReference<>();
+    private final CompletableFuture<StatsSnapshot> initial = new CompletableFuture<>();
+
+    @Inject
+    public StatsSnapshots(MongoDBRepository mongoDBRepository, MarvelHeroesConfiguration configuration, ActorSystem actorSystem, ApplicationLifecycle lifecycle) {
+        this.mongoDBRepository = mongoDBRepository;
+        this.statsConfiguration = configuration.statsConfiguration;
+
+        final Duration interval = statsConfiguration.refreshInterval;
+        final Cancellable schedule = actorSystem.scheduler().schedule(Duration.ZERO, interval, this::refresh, actorSystem.dispatcher());
+        lifecycle.addStopHook(() -> {
+            schedule.cancel();
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    public CompletionStage<StatsSnapshot> snapshot() {
+        final StatsSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return initial;
+        }
+        if (System.currentTimeMillis() - snapshot.computedAt >= statsConfiguration.refreshInterval.toMillis()) {
+            refresh();
+        }
+        return CompletableFuture.completedFuture(snapshot);
+    }
+
+    public int topPowersSize() {
+        return statsConfiguration.topPowers;
+    }
+
+    /**
+     * Recomputes the snapshot in the background. Calls made while a refresh is running join it.
+     */
+    public CompletionStage<StatsSnapshot> refresh() {
+        final CompletableFuture<StatsSnapshot> future = new CompletableFuture<>();
+        final CompletableFuture<StatsSnapshot> running = refreshing.compareAndExchange(null, future);
+        if (running != null) {
+            return running;
+        }
+
+        LOGGER.info("Refresh stats snapshot");
+        final CompletableFuture<List<ItemCount>> byUniverse = mongoDBRepository.byUniverse().toCompletableFuture();
+        final CompletableFuture<List<YearAndUniverseStat>> byYearAndUniverse = mongoDBRepository.countByYearAndUniverse().toCompletableFuture();
+        final CompletableFuture<List<ItemCount>> topPowers = mongoDBRepository.topPowers(statsConfiguration.topPowers).toCompletableFuture();
+        CompletableFuture.allOf(byUniverse, byYearAndUniverse, topPowers)
+                .thenApply(v -> new StatsSnapshot(byUniverse.join(), byYearAndUniverse.join(), topPowers.join(), System.currentTimeMillis()))
+                .whenComplete((snapshot, e) -> {
+                    refreshing.set(null);
+                    if (e != null) {
+                        LOGGER.error("Error while refreshing stats snapshot, keeping the previous one: " + e.getMessage(), e);
+                        // Without any snapshot yet, the first readers get empty stats rather than wait for the next
+                        // refresh; as computed at 0 it is refreshed again on the next read
+                        if (current.compareAndSet(null, new StatsSnapshot(Collections.emptyList(), Collections.emptyList(), Collections.emptyList(), 0))) {
+                            initial.complete(current.get());
+                        }
+                        future.completeExceptionally(e);
+                    } else {
+                        current.set(snapshot);
+                        initial.complete(snapshot);
+                        future.complete(snapshot);
+                    }
+                });
+        return future;
+    }
+}
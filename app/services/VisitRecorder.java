@@ -0,0 +1,111 @@
+package services;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import env.MarvelHeroesConfiguration;
+import env.VisitsConfiguration;
+import models.HeroVisits;
+import models.StatItem;
+import play.inject.ApplicationLifecycle;
+import repository.RedisRepository;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Records hero visits in Redis, according to the configured {@link VisitsConfiguration.Mode}.
+ * In batched mode, visits are buffered and flushed every {@code flushInterval} or once {@code maxBatchSize} visits are pending,
+ * repeated visits to the same hero being merged into a single increment.
+ * In local mode, visits are counted in {@link HeroVisitCounters} and merged every {@code flushInterval}.
+ * Pending visits are flushed on shutdown.
+ */
+@Singleton
+public class VisitRecorder {
+
+    private final RedisRepository redisRepository;
+    private final StatItemLookup statItemLookup;
+    private final VisitsConfiguration visitsConfiguration;
+    private final HeroVisitCounters counters = new HeroVisitCounters();
+
+    private Map<String, HeroVisits> pending = new HashMap<>();
+    private int pendingCount;
+
+    @Inject
+    public VisitRecorder(RedisRepository redisRepository, StatItemLookup statItemLookup, MarvelHeroesConfiguration configuration, ActorSystem actorSystem, ApplicationLifecycle lifecycle) {
+        this.redisRepository = redisRepository;
+        this.statItemLookup = statItemLookup;
+        this.visitsConfiguration = configuration.visitsConfiguration;
+
+        if (visitsConfiguration.mode != VisitsConfiguration.Mode.DIRECT) {
+            final Cancellable schedule = actorSystem.scheduler().schedule(
+                    visitsConfiguration.flushInterval, visitsConfiguration.flushInterval, this::flush, actorSystem.dispatcher());
+            lifecycle.addStopHook(() -> {
+                schedule.cancel();
+                return flush();
+            });
+        }
+    }
+
+    public void record(StatItem statItem) {
+        switch (visitsConfiguration.mode) {
+            case DIRECT:
+                register(statItem);
+                redisRepository.addNewHeroVisited(statItem);
+                break;
+            case LOCAL:
+                counters.increment(statItem, System.currentTimeMillis());
+                break;
+            case BATCHED:
+                buffer(statItem);
+                break;
+        }
+    }
+
+    private void buffer(StatItem statItem) {
+        final HeroVisits visit = new HeroVisits(statItem, 1, System.currentTimeMillis());
+        final boolean full;
+        synchronized (this) {
+            pending.merge(statItem.slug, visit, HeroVisits::merge);
+            full = ++pendingCount >= visitsConfiguration.maxBatchSize;
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    public CompletionStage<Boolean> flush() {
+        if (visitsConfiguration.mode == VisitsConfiguration.Mode.LOCAL) {
+            return write(counters.drain());
+        }
+        final Collection<HeroVisits> batch;
+        synchronized (this) {
+            batch = pending.values();
+            pending = new HashMap<>();
+            pendingCount = 0;
+        }
+        return write(batch);
+    }
+
+    private CompletionStage<Boolean> write(Collection<HeroVisits> batch) {
+        if (batch.isEmpty()) {
+            return CompletableFuture.completedFuture(true);
+        }
+        // Once per hero and flush rather than per visit, the lookup cache being guarded by a lock
+        batch.forEach(visit -> register(visit.statItem));
+        return redisRepository.addHeroesVisited(batch);
+    }
+
+    /**
+     * Compact members are bare hero ids: the lookup learns the stat item of visited heroes before they reach Redis.
+     */
+    private void register(StatItem statItem) {
+        if (redisRepository.compactMembers()) {
+            statItemLookup.register(statItem);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package tracing;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import play.libs.Json;
+
+import java.util.List;
+
+/**
+ * Builds OTLP/HTTP JSON export requests, as accepted on {@code /v1/traces} by OpenTelemetry collectors.
+ */
+final class OtlpTraces {
+
+    static final String SERVICE_NAME = "marvel-heroes";
+    private static final int SPAN_KIND_INTERNAL = 1;
+    private static final int SPAN_KIND_SERVER = 2;
+    private static final int STATUS_ERROR = 2;
+
+    private OtlpTraces() {
+    }
+
+    static ObjectNode request(List<Trace> traces) {
+        final ObjectNode request = Json.newObject();
+        final ObjectNode resourceSpans = request.putArray("resourceSpans").addObject();
+        attribute(resourceSpans.putObject("resource").putArray("attributes"), "service.name", SERVICE_NAME);
+        final ObjectNode scopeSpans = resourceSpans.putArray("scopeSpans").addObject();
+        scopeSpans.putObject("scope").put("name", SERVICE_NAME);
+        final ArrayNode spans = scopeSpans.putArray("spans");
+        for (Trace trace : traces) {
+            final ObjectNode root = span(spans, trace, trace.spanId, trace.name, SPAN_KIND_SERVER, trace.startNanos, trace.endNanos());
+            final ArrayNode attributes = root.putArray("attributes");
+            attribute(attributes, "http.request_id", trace.requestId);
+            trace.criticalPath().ifPresent(criticalPath -> attribute(attributes, "critical_path", criticalPath.name));
+            for (Trace.Span child : trace.spans()) {
+                // A span still running when the request ended is exported as ending with it
+                final long endNanos = child.endNanos() == 0 ? trace.endNanos() : child.endNanos();
+                final ObjectNode span = span(spans, trace, child.spanId, child.name, SPAN_KIND_INTERNAL, child.startNanos, endNanos);
+                span.put("parentSpanId", trace.spanId);
+                if (child.failed()) {
+                    span.putObject("status").put("code", STATUS_ERROR);
+                }
+            }
+        }
+        return request;
+    }
+
+    private static ObjectNode span(ArrayNode spans, Trace trace, String spanId, String name, int kind, long startNanos, long endNanos) {
+        final ObjectNode span = spans.addObject();
+        span.put("traceId", trace.traceId);
+        span.put("spanId", spanId);
+        span.put("name", name);
+        span.put("kind", kind);
+        // 64-bit integers are strings in the JSON mapping of protobuf
+        span.put("startTimeUnixNano", Long.toString(trace.epochNanos(startNanos)));
+        span.put("endTimeUnixNano", Long.toString(trace.epochNanos(endNanos)));
+        return span;
+    }
+
+    private static void attribute(ArrayNode attributes, String key, String value) {
+        final ObjectNode attribute = attributes.addObject();
+        attribute.put("key", key);
+        attribute.putObject("value").put("stringValue", value);
+    }
+}
@@ -0,0 +1,168 @@
+package tracing;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import play.libs.Json;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Spans of one request: a root span covering the whole request and one child span per backend call it fans out.
+ * Times are taken from the monotonic clock and converted to wall-clock time only on export.
+ */
+public final class Trace {
+
+    private static final Trace DISABLED = new Trace("", "", "", false);
+
+    /**
+     * A backend call of the request, ended when its stage completes.
+     */
+    public static final class Span {
+        public final String name;
+        public final String spanId;
+        public final long startNanos;
+        private volatile long endNanos;
+        private volatile boolean failed;
+
+        Span(String name, String spanId, long startNanos) {
+            this.name = name;
+            this.spanId = spanId;
+            this.startNanos = startNanos;
+        }
+
+        public long endNanos() {
+            return endNanos;
+        }
+
+        public boolean failed() {
+            return failed;
+        }
+
+        void end(long endNanos, boolean failed) {
+            this.failed = failed;
+            this.endNanos = endNanos;
+        }
+    }
+
+    public final String traceId;
+    public final String spanId;
+    public final String requestId;
+    public final String name;
+    public final long startNanos;
+    private final long startEpochNanos;
+    private final boolean recording;
+    private final List<Span> spans = new ArrayList<>(4);
+    private volatile long endNanos;
+
+    Trace(String name, String requestId) {
+        this(name, requestId, randomId(16), true);
+    }
+
+    private Trace(String name, String requestId, String traceId, boolean recording) {
+        this.traceId = traceId;
+        this.spanId = recording ? randomId(8) : "";
+        this.requestId = requestId.isEmpty() ? traceId : requestId;
+        this.name = name;
+        this.recording = recording;
+        this.startEpochNanos = System.currentTimeMillis() * 1_000_000L;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * A trace recording nothing, for when tracing is disabled.
+     */
+    public static Trace disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Runs {@code call} as a child span named {@code name}, ended when the returned stage completes.
+     */
+    public <T> CompletionStage<T> span(String name, Supplier<? extends CompletionStage<T>> call) {
+        if (!recording) {
+            return call.get();
+        }
+        final Span span = new Span(name, randomId(8), System.nanoTime());
+        synchronized (spans) {
+            spans.add(span);
+        }
+        final CompletionStage<T> stage;
+        try {
+            stage = call.get();
+        } catch (RuntimeException e) {
+            span.end(System.nanoTime(), true);
+            throw e;
+        }
+        return stage.whenComplete((value, e) -> span.end(System.nanoTime(), e != null));
+    }
+
+    public boolean recording() {
+        return recording;
+    }
+
+    void end() {
+        endNanos = System.nanoTime();
+    }
+
+    public long endNanos() {
+        return endNanos;
+    }
+
+    public List<Span> spans() {
+        synchronized (spans) {
+            return new ArrayList<>(spans);
+        }
+    }
+
+    /**
+     * The span that ended last, which the request had to wait for once every call was started.
+     */
+    public Optional<Span> criticalPath() {
+        return spans().stream()
+                .filter(span -> span.endNanos() != 0)
+                .max(Comparator.comparingLong(Span::endNanos));
+    }
+
+    long epochNanos(long nanos) {
+        return startEpochNanos + (nanos - startNanos);
+    }
+
+    public ObjectNode toJson() {
+        final ObjectNode json = Json.newObject();
+        json.put("traceId", traceId);
+        json.put("requestId", requestId);
+        json.put("name", name);
+        json.put("start", epochNanos(startNanos) / 1_000_000L);
+        json.put("durationMicros", (endNanos - startNanos) / 1_000L);
+        criticalPath().ifPresent(span -> json.put("criticalPath", span.name));
+        final ArrayNode spansJson = json.putArray("spans");
+        for (Span span : spans()) {
+            final ObjectNode spanJson = spansJson.addObject();
+            spanJson.put("name", span.name);
+            spanJson.put("offsetMicros", (span.startNanos - startNanos) / 1_000L);
+            // Still running when the request ended, only possible if it failed early
+            spanJson.put("durationMicros", span.endNanos() == 0 ? -1 : (span.endNanos() - span.startNanos) / 1_000L);
+            spanJson.put("failed", span.failed());
+        }
+        return json;
+    }
+
+    private static String randomId(int bytes) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final StringBuilder id = new StringBuilder(bytes * 2);
+        for (int i = 0; i < bytes; i += 8) {
+            final String hex = Long.toHexString(random.nextLong());
+            for (int padding = hex.length(); padding < 16; padding++) {
+                id.append('0');
+            }
+            id.append(hex);
+        }
+        return id.substring(0, bytes * 2);
+    }
+}
@@ -0,0 +1,120 @@
+package tracing;
+
+import akka.actor.ActorSystem;
+import akka.actor.Cancellable;
+import akka.util.ByteString;
+import env.MarvelHeroesConfiguration;
+import env.TracingConfiguration;
+import play.Logger;
+import play.inject.ApplicationLifecycle;
+import play.libs.Json;
+import play.libs.ws.InMemoryBodyWritable;
+import play.libs.ws.WSClient;
+import play.mvc.Http;
+import play.mvc.Result;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Starts request traces and exports them once finished, either as one JSON line per request on the {@code Tracing}
+ * logger, or in batches to an OTLP/HTTP collector. Export never blocks a request: when the collector cannot keep up,
+ * traces beyond {@code maxQueued} are dropped.
+ */
+@Singleton
+public class Tracer {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    private static final String OTLP_EXPORTER = "otlp";
+    private static final String JSON_CONTENT_TYPE = "application/json";
+
+    private static final Logger.ALogger LOGGER = Logger.of("Tracing");
+
+    private final TracingConfiguration tracingConfiguration;
+    private final WSClient wsClient;
+    private final boolean otlp;
+    private final Queue<Trace> queued = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+
+    @Inject
+    public Tracer(MarvelHeroesConfiguration configuration, WSClient wsClient, ActorSystem actorSystem, ApplicationLifecycle lifecycle) {
+        this.tracingConfiguration = configuration.tracingConfiguration;
+        this.wsClient = wsClient;
+        this.otlp = tracingConfiguration.enabled && OTLP_EXPORTER.equals(tracingConfiguration.exporter);
+        if (otlp) {
+            final Cancellable schedule = actorSystem.scheduler().schedule(tracingConfiguration.flushInterval, tracingConfiguration.flushInterval,
+                    this::flush, actorSystem.dispatcher());
+            lifecycle.addStopHook(() -> {
+                schedule.cancel();
+                flush();
+                return CompletableFuture.completedFuture(null);
+            });
+        }
+    }
+
+    /**
+     * Starts the trace of {@code request}, keeping the request id sent by the client if any.
+     */
+    public Trace start(String name, Http.Request request) {
+        if (!tracingConfiguration.enabled) {
+            return Trace.disabled();
+        }
+        return new Trace(name, request.header(REQUEST_ID_HEADER).orElse(""));
+    }
+
+    /**
+     * Echoes the request id of {@code trace}, for clients to find the trace of their request.
+     */
+    public Result withRequestId(Result result, Trace trace) {
+        return trace.recording() ? result.withHeader(REQUEST_ID_HEADER, trace.requestId) : result;
+    }
+
+    public void finish(Trace trace) {
+        if (!trace.recording()) {
+            return;
+        }
+        trace.end();
+        if (!otlp) {
+            LOGGER.info(Json.stringify(trace.toJson()));
+        } else if (queuedCount.incrementAndGet() > tracingConfiguration.maxQueued) {
+            queuedCount.decrementAndGet();
+            LOGGER.debug("Trace queue full, dropped trace " + trace.traceId);
+        } else {
+            queued.add(trace);
+        }
+    }
+
+    private void flush() {
+        List<Trace> batch;
+        while (!(batch = drain()).isEmpty()) {
+            final int size = batch.size();
+            wsClient.url(tracingConfiguration.endpoint)
+                    .post(new InMemoryBodyWritable(ByteString.fromString(Json.stringify(OtlpTraces.request(batch))), JSON_CONTENT_TYPE))
+                    .thenAccept(response -> {
+                        if (response.getStatus() >= 300) {
+                            LOGGER.warn("Collector rejected " + size + " traces (" + response.getStatus() + "): " + response.getBody());
+                        }
+                    })
+                    .exceptionally(e -> {
+                        LOGGER.warn("Cannot export " + size + " traces: " + e.getMessage());
+                        return null;
+                    });
+        }
+    }
+
+    private List<Trace> drain() {
+        final List<Trace> batch = new ArrayList<>(tracingConfiguration.batchSize);
+        Trace trace;
+        while (batch.size() < tracingConfiguration.batchSize && (trace = queued.poll()) != null) {
+            queuedCount.decrementAndGet();
+            batch.add(trace);
+        }
+        return batch;
+    }
+}
@@ -1,5 +1,8 @@
 package utils;
 
+import akka.NotUsed;
+import akka.stream.Attributes;
+import akka.stream.javadsl.Source;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
 import org.reactivestreams.Subscription;
@@ -7,9 +10,13 @@ import org.reactivestreams.Subscription;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public class ReactiveStreamsUtils {
 
+    public static final int DEFAULT_DEMAND = 100;
+
     public static <T> CompletableFuture<T> fromSinglePublisher(Publisher<T> publisher) {
         final CompletableFuture<T> future = new CompletableFuture<>();
         publisher.subscribe(new Subscriber<T>() {
@@ -41,34 +48,91 @@ public class ReactiveStreamsUtils {
     }
 
     public static <T> CompletableFuture<List<T>> fromMultiPublisher(Publisher<T> publisher) {
-        final CompletableFuture<List<T>> future = new CompletableFuture<>();
+        return fromMultiPublisher(publisher, DEFAULT_DEMAND);
+    }
+
+    public static <T> CompletableFuture<List<T>> fromMultiPublisher(Publisher<T> publisher, int demand) {
+        return fromMultiPublisher(publisher, demand, Function.identity());
+    }
+
+    /**
+     * Collects the elements of {@code publisher}, mapping each one as soon as it is received so that the source elements
+     * can be discarded right away.
+     */
+    public static <T, R> CompletableFuture<List<R>> fromMultiPublisher(Publisher<T> publisher, int demand, Function<? super T, ? extends R> mapper) {
+        return fold(publisher, demand, new ArrayList<>(), (values, value) -> {
+            values.add(mapper.apply(value));
+            return values;
+        });
+    }
+
+    /**
+     * Folds the elements of {@code publisher} into a single value, requesting at most {@code demand} elements at a time.
+     * An exception thrown by the accumulator cancels the subscription and fails the returned future.
+     */
+    public static <T, U> CompletableFuture<U> fold(Publisher<T> publisher, int demand, U initial, BiFunction<U, ? super T, U> accumulator) {
+        final CompletableFuture<U> future = new CompletableFuture<>();
         publisher.subscribe(new Subscriber<T>() {
 
-            private List<T> values = new ArrayList<>();
+            private Subscription subscription;
+            private U accumulated = initial;
+            private int remaining;
+            private boolean done;
 
             @Override
             public void onSubscribe(Subscription s) {
-                s.request(Integer.MAX_VALUE);
+                this.subscription = s;
+                this.remaining = demand;
+                s.request(demand);
             }
 
             @Override
             public void onNext(T value) {
-                this.values.add(value);
+                if (done) {
+                    return;
+                }
+                try {
+                    this.accumulated = accumulator.apply(this.accumulated, value);
+                } catch (RuntimeException e) {
+                    done = true;
+                    subscription.cancel();
+                    future.completeExceptionally(e);
+                    return;
+                }
+                if (--remaining == 0) {
+                    remaining = demand;
+                    subscription.request(demand);
+                }
             }
 
             @Override
             public void onError(Throwable t) {
-                t.printStackTrace();
-                future.completeExceptionally(t);
+                if (!done) {
+                    done = true;
+                    future.completeExceptionally(t);
+                }
             }
 
             @Override
             public void onComplete() {
-                future.complete(this.values);
+                if (!done) {
+                    done = true;
+                    future.complete(this.accumulated);
+                }
             }
         });
 
         return future;
     }
 
+    /**
+     * Exposes {@code publisher} as an Akka Streams source, pulling at most {@code demand} elements ahead of downstream.
+     * Akka only accepts powers of two as buffer sizes, so {@code demand} is rounded down to one.
+     */
+    public static <T> Source<T, NotUsed> toSource(Publisher<T> publisher, int demand) {
+        final int bufferSize = Integer.highestOneBit(Math.max(1, demand));
+        return Source.fromPublisher(publisher)
+                .addAttributes(Attributes.inputBuffer(bufferSize, bufferSize));
+    }
+
 }
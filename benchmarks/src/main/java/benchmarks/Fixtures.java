@@ -0,0 +1,87 @@
+package benchmarks;
+
+import codecs.HeroCodec;
+import importer.CsvRecordReader;
+import importer.HeroCsvMapper;
+import models.Hero;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import play.libs.Json;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark inputs: the hero samples of {@code conf/data} and real rows of {@code scripts/all-heroes.csv}.
+ * Files are looked up from the working directory and its parents, as JMH may fork from the sub-project directory.
+ */
+public final class Fixtures {
+
+    public static final String[] SAMPLES = {
+            "conf/data/iron-man-sample.json",
+            "conf/data/spider-man-sample.json",
+            "conf/data/batman-sample.json",
+            "conf/data/superman-sample.json"
+    };
+
+    private Fixtures() {}
+
+    public static String read(String relativePath) {
+        try {
+            return new String(Files.readAllBytes(locate(relativePath)), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the first {@code limit} heroes of the CSV dataset.
+     */
+    public static List<Hero> csvHeroes(int limit) {
+        try (CsvRecordReader reader = new CsvRecordReader(Files.newBufferedReader(locate("scripts/all-heroes.csv"), StandardCharsets.UTF_8))) {
+            final HeroCsvMapper mapper = new HeroCsvMapper(CsvRecordReader.fields(reader.readRecord()));
+            final List<Hero> heroes = new ArrayList<>();
+            String record;
+            while (heroes.size() < limit && (record = reader.readRecord()) != null) {
+                heroes.add(mapper.toHero(CsvRecordReader.fields(record)));
+            }
+            return heroes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static String toJson(Hero hero) {
+        return Json.stringify(Json.toJson(hero));
+    }
+
+    /**
+     * Encodes {@code hero} as MongoDB stores it, for the decoders to start from the same bytes the driver receives.
+     */
+    public static RawBsonDocument toBson(Hero hero) {
+        final BsonDocument document = new BsonDocument();
+        new HeroCodec().encode(new BsonDocumentWriter(document), hero, EncoderContext.builder().build());
+        return new RawBsonDocument(document, new BsonDocumentCodec());
+    }
+
+    private static Path locate(String relativePath) {
+        Path directory = Paths.get("").toAbsolutePath();
+        while (directory != null) {
+            final Path candidate = directory.resolve(relativePath);
+            if (Files.exists(candidate)) {
+                return candidate;
+            }
+            directory = directory.getParent();
+        }
+        throw new IllegalStateException(relativePath + " not found from " + Paths.get("").toAbsolutePath());
+    }
+}
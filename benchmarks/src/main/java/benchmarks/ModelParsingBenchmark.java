@@ -0,0 +1,91 @@
+package benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import models.Hero;
+import models.PaginatedResults;
+import models.SearchedHero;
+import models.StatItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * JSON mapping of the models, as done on every request by the controllers and the Redis and Elasticsearch repositories.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ModelParsingBenchmark {
+
+    private static final int CSV_HEROES = 100;
+    private static final int PAGE_SIZE = 10;
+
+    private List<String> sampleHeroes;
+    private List<String> csvHeroes;
+    private String searchedHero;
+    private String statItemJson;
+    private StatItem statItem;
+    private PaginatedResults<SearchedHero> page;
+
+    @Setup
+    public void setUp() {
+        sampleHeroes = Arrays.stream(Fixtures.SAMPLES).map(Fixtures::read).collect(Collectors.toList());
+        final List<Hero> heroes = Fixtures.csvHeroes(CSV_HEROES);
+        csvHeroes = heroes.stream().map(Fixtures::toJson).collect(Collectors.toList());
+
+        final Hero ironMan = Hero.fromJson(sampleHeroes.get(0));
+        searchedHero = "{\"id\":\"" + ironMan.id + "\",\"name\":\"" + ironMan.name + "\",\"imageUrl\":\"" + ironMan.imageUrl
+                + "\",\"universe\":\"" + ironMan.identity.universe + "\",\"gender\":\"Male\"}";
+        statItem = StatItem.fromHero(ironMan);
+        statItemJson = statItem.toJson().toString();
+        final List<SearchedHero> results = heroes.subList(0, PAGE_SIZE).stream()
+                .map(hero -> new SearchedHero(hero.id, hero.imageUrl, hero.name, hero.identity.universe, hero.appearance.gender.orElse(null)))
+                .collect(Collectors.toList());
+        page = new PaginatedResults<>(heroes.size(), 1, heroes.size() / PAGE_SIZE, results);
+    }
+
+    @Benchmark
+    public void heroFromJsonSamples(Blackhole blackhole) {
+        for (String json : sampleHeroes) {
+            blackhole.consume(Hero.fromJson(json));
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void heroFromJsonCsvRows(Blackhole blackhole) {
+        for (String json : csvHeroes) {
+            blackhole.consume(Hero.fromJson(json));
+        }
+    }
+
+    @Benchmark
+    public SearchedHero searchedHeroFromJson() {
+        return SearchedHero.fromJson(searchedHero);
+    }
+
+    @Benchmark
+    public StatItem statItemFromJson() {
+        return StatItem.fromJson(statItemJson);
+    }
+
+    @Benchmark
+    public JsonNode statItemToJson() {
+        return statItem.toJson();
+    }
+
+    @Benchmark
+    public JsonNode paginatedResultsToJson() {
+        return page.toJson();
+    }
+}
@@ -0,0 +1,93 @@
+package benchmarks;
+
+import codecs.HeroCodec;
+import codecs.HeroSummaryCodec;
+import codecs.ItemCountCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import models.Hero;
+import models.HeroSummary;
+import models.ItemCount;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import play.libs.Json;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Mapping of MongoDB results to models: the codecs registered on the database against the former
+ * {@code Document} to JSON string to Jackson round trip. Both start from the raw BSON the driver receives.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MongoMappingBenchmark {
+
+    private static final int HEROES = 100;
+    private static final DecoderContext DECODER_CONTEXT = DecoderContext.builder().build();
+
+    private final DocumentCodec documentCodec = new DocumentCodec();
+    private final HeroCodec heroCodec = new HeroCodec();
+    private final HeroSummaryCodec heroSummaryCodec = new HeroSummaryCodec();
+    private final ItemCountCodec itemCountCodec = new ItemCountCodec();
+
+    private List<RawBsonDocument> heroes;
+    private RawBsonDocument itemCount;
+
+    @Setup
+    public void setUp() {
+        heroes = Fixtures.csvHeroes(HEROES).stream().map(Fixtures::toBson).collect(Collectors.toList());
+        itemCount = new RawBsonDocument(new BsonDocument("_id", new BsonString("Marvel")).append("count", new BsonInt32(1007)), new BsonDocumentCodec());
+    }
+
+    @Benchmark
+    public void heroFromDocumentJson(Blackhole blackhole) {
+        for (RawBsonDocument hero : heroes) {
+            final Document document = documentCodec.decode(new BsonBinaryReader(hero.getByteBuffer().asNIO()), DECODER_CONTEXT);
+            blackhole.consume(Hero.fromJson(document.toJson()));
+        }
+    }
+
+    @Benchmark
+    public void heroFromCodec(Blackhole blackhole) {
+        for (RawBsonDocument hero : heroes) {
+            blackhole.consume(heroCodec.decode(new BsonBinaryReader(hero.getByteBuffer().asNIO()), DECODER_CONTEXT));
+        }
+    }
+
+    @Benchmark
+    public void heroSummaryFromCodec(Blackhole blackhole) {
+        for (RawBsonDocument hero : heroes) {
+            final HeroSummary summary = heroSummaryCodec.decode(new BsonBinaryReader(hero.getByteBuffer().asNIO()), DECODER_CONTEXT);
+            blackhole.consume(summary);
+        }
+    }
+
+    @Benchmark
+    public ItemCount itemCountFromDocumentJson() {
+        final Document document = documentCodec.decode(new BsonBinaryReader(itemCount.getByteBuffer().asNIO()), DECODER_CONTEXT);
+        final JsonNode json = Json.parse(document.toJson());
+        return new ItemCount(json.findPath("_id").asText(), json.findPath("count").asInt());
+    }
+
+    @Benchmark
+    public ItemCount itemCountFromCodec() {
+        return itemCountCodec.decode(new BsonBinaryReader(itemCount.getByteBuffer().asNIO()), DECODER_CONTEXT);
+    }
+}
@@ -0,0 +1,83 @@
+package repository;
+
+import benchmarks.Fixtures;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import models.Hero;
+import models.SearchedHero;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import play.libs.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading of Elasticsearch search responses: the streaming parser against materializing the response tree and
+ * mapping each {@code _source} with {@link SearchedHero#fromJson}. Sits in {@code repository} to reach the parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ElasticResponsesBenchmark {
+
+    @Param({"10", "100"})
+    public int hits;
+
+    private byte[] response;
+
+    @Setup
+    public void setUp() {
+        final ArrayNode hitsNode = Json.newArray();
+        for (Hero hero : Fixtures.csvHeroes(hits)) {
+            final ObjectNode hit = hitsNode.addObject()
+                    .put("_index", "heroes")
+                    .put("_type", "_doc")
+                    .put("_id", hero.id)
+                    .put("_score", 1.5);
+            // Whole documents, as returned before requests filtered _source
+            hit.putObject("_source")
+                    .put("name", hero.name)
+                    .put("description", hero.description.orElse(""))
+                    .put("imageUrl", hero.imageUrl)
+                    .put("universe", hero.identity.universe)
+                    .put("gender", hero.appearance.gender.orElse(""))
+                    .put("aliases", String.join(",", hero.identity.aliases))
+                    .put("secretIdentities", String.join(",", hero.identity.secretIdentities))
+                    .put("partners", String.join(",", hero.partners));
+        }
+        final ObjectNode json = Json.newObject().put("took", 3).put("timed_out", false);
+        final ObjectNode hitsObject = json.putObject("hits");
+        hitsObject.putObject("total").put("value", hits).put("relation", "eq");
+        hitsObject.put("max_score", 1.5);
+        hitsObject.set("hits", hitsNode);
+        response = Json.stringify(json).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public List<SearchedHero> tree() {
+        final JsonNode json = Json.parse(response);
+        final List<SearchedHero> heroes = new ArrayList<>();
+        for (JsonNode hit : json.get("hits").get("hits")) {
+            final JsonNode source = hit.get("_source");
+            ((ObjectNode) source).put("id", hit.get("_id").textValue());
+            heroes.add(SearchedHero.fromJson(source));
+        }
+        json.get("hits").get("total").get("value").asInt();
+        return heroes;
+    }
+
+    @Benchmark
+    public List<SearchedHero> streaming() {
+        return ElasticResponses.search(response).heroes;
+    }
+}
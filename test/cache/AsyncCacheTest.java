@@ -0,0 +1,137 @@
+package cache;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class AsyncCacheTest {
+
+    @Test
+    public void testCoalescing() {
+        AsyncCache<String, String> cache = new AsyncCache<>("test", 10, Duration.ofMinutes(1));
+        CompletableFuture<String> loading = new CompletableFuture<>();
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> first = cache.get("iron-man", k -> {
+            calls.incrementAndGet();
+            return loading;
+        }).toCompletableFuture();
+        CompletableFuture<String> second = cache.get("iron-man", k -> {
+            calls.incrementAndGet();
+            return loading;
+        }).toCompletableFuture();
+        loading.complete("Iron Man");
+
+        Assert.assertEquals("Iron Man", first.join());
+        Assert.assertEquals("Iron Man", second.join());
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals("Iron Man", cache.get("iron-man", k -> CompletableFuture.completedFuture("other")).toCompletableFuture().join());
+        Assert.assertEquals(1, cache.hitCount());
+        Assert.assertEquals(2, cache.missCount());
+        Assert.assertEquals(1, cache.loadCount());
+    }
+
+    @Test
+    public void testEviction() {
+        AtomicLong now = new AtomicLong();
+        AsyncCache<String, String> cache = new AsyncCache<>("test", 2, v -> Duration.ofNanos(100), now::get);
+        cache.put("a", "A");
+        cache.put("b", "B");
+        cache.getIfPresent("a");
+        cache.put("c", "C");
+        Assert.assertNull(cache.getIfPresent("b"));
+        Assert.assertEquals("A", cache.getIfPresent("a"));
+
+        now.set(100);
+        Assert.assertNull(cache.getIfPresent("a"));
+        Assert.assertNull(cache.getIfPresent("c"));
+    }
+
+    @Test
+    public void testInvalidationDuringLoad() {
+        AsyncCache<String, String> cache = new AsyncCache<>("test", 10, Duration.ofMinutes(1));
+        CompletableFuture<String> loading = new CompletableFuture<>();
+        CompletableFuture<String> result = cache.get("batman", k -> loading).toCompletableFuture();
+        cache.invalidate("batman");
+        loading.complete("Batman");
+
+        Assert.assertEquals("Batman", result.join());
+        Assert.assertNull(cache.getIfPresent("batman"));
+    }
+
+    @Test
+    public void testNotCacheable() {
+        AsyncCache<String, String> cache = new AsyncCache<>("test", 10, Duration.ofMinutes(1), v -> !v.isEmpty());
+        cache.get("nobody", k -> CompletableFuture.completedFuture("")).toCompletableFuture().join();
+        Assert.assertNull(cache.getIfPresent("nobody"));
+    }
+
+    @Test
+    public void testGetAll() {
+        AsyncCache<String, String> cache = new AsyncCache<>("test", 10, Duration.ofMinutes(1));
+        cache.put("a", "A");
+        AtomicInteger calls = new AtomicInteger();
+
+        Map<String, String> values = cache.getAll(Arrays.asList("a", "b", "c", "b"), keys -> {
+            calls.incrementAndGet();
+            Assert.assertEquals(new HashSet<>(Arrays.asList("b", "c")), keys);
+            Map<String, String> loaded = new HashMap<>();
+            loaded.put("b", "B");
+            return CompletableFuture.completedFuture(loaded);
+        }).toCompletableFuture().join();
+
+        Assert.assertEquals(1, calls.get());
+        Assert.assertEquals("A", values.get("a"));
+        Assert.assertEquals("B", values.get("b"));
+        Assert.assertFalse(values.containsKey("c"));
+        Assert.assertEquals("B", cache.getIfPresent("b"));
+    }
+
+    @Test
+    public void testInvalidationDuringGetAll() {
+        AsyncCache<String, String> cache = new AsyncCache<>("test", 10, Duration.ofMinutes(1));
+        CompletableFuture<Map<String, String>> loading = new CompletableFuture<>();
+        CompletableFuture<Map<String, String>> result = cache.getAll(Arrays.asList("batman", "robin"), keys -> loading).toCompletableFuture();
+        cache.invalidate("batman");
+        Map<String, String> loaded = new HashMap<>();
+        loaded.put("batman", "Batman");
+        loaded.put("robin", "Robin");
+        loading.complete(loaded);
+
+        Assert.assertEquals("Batman", result.join().get("batman"));
+        Assert.assertNull(cache.getIfPresent("batman"));
+        Assert.assertEquals("Robin", cache.getIfPresent("robin"));
+    }
+
+    @Test
+    public void testGetJoinsGetAll() {
+        AsyncCache<String, String> cache = new AsyncCache<>("test", 10, Duration.ofMinutes(1));
+        CompletableFuture<Map<String, String>> loading = new CompletableFuture<>();
+        cache.getAll(Collections.singletonList("batman"), keys -> loading);
+        CompletableFuture<String> result = cache.get("batman", k -> CompletableFuture.completedFuture("Other")).toCompletableFuture();
+        loading.complete(Collections.singletonMap("batman", "Batman"));
+
+        Assert.assertEquals("Batman", result.join());
+        Assert.assertEquals(1, cache.loadCount());
+    }
+
+    @Test
+    public void testExpiry() {
+        AtomicLong now = new AtomicLong();
+        AsyncCache<String, String> cache = new AsyncCache<>("test", 10, v -> v.isEmpty() ? Duration.ofNanos(10) : Duration.ofNanos(100), now::get);
+        cache.put("empty", "");
+        cache.put("full", "full");
+        now.set(10);
+        Assert.assertNull(cache.getIfPresent("empty"));
+        Assert.assertEquals("full", cache.getIfPresent("full"));
+    }
+}
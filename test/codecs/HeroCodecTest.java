@@ -0,0 +1,60 @@
+package codecs;
+
+import models.Hero;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Assert;
+import org.junit.Test;
+import utils.HeroSamples;
+
+public class HeroCodecTest {
+
+    private final HeroCodec codec = new HeroCodec();
+
+    @Test
+    public void testDecodingImportedDocument() {
+        BsonDocument document = BsonDocument.parse("{\n" +
+                "    \"_id\": {\"$oid\": \"5dfa3a7d2f6b1c0e1a2b3c4d\"},\n" +
+                "    \"id\": \"1009368\",\n" +
+                "    \"name\": \"Iron Man\",\n" +
+                "    \"imageUrl\": \"https://image.url\",\n" +
+                "    \"backgroundImageUrl\": \"https://backgroundimage.url\",\n" +
+                "    \"externalLink\": \"https://www.external.link\",\n" +
+                "    \"description\": \"\",\n" +
+                "    \"teams\": \"Avengers\",\n" +
+                "    \"powers\": [\"Genius\", \"Durability\"],\n" +
+                "    \"partners\": \"\",\n" +
+                "    \"creators\": \"Stan Lee\",\n" +
+                "    \"appearance\": {\"gender\": \"Male\", \"height\": \"198\", \"weight\": \"\"},\n" +
+                "    \"identity\": {\"aliases\": \"Tony Stark\", \"yearAppearance\": \"1963\", \"universe\": \"Marvel\"},\n" +
+                "    \"skills\": {\"intelligence\": 100, \"strength\": 85, \"speed\": 58, \"durability\": 85, \"combat\": 64, \"power\": 100}\n" +
+                "}");
+        Hero hero = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+        Assert.assertEquals("1009368", hero.id);
+        Assert.assertTrue(hero.isMarvel());
+        Assert.assertEquals(1, hero.teams.size());
+        Assert.assertEquals(2, hero.powers.size());
+        Assert.assertEquals(Integer.valueOf(1963), hero.identity.yearAppearance.get());
+        Assert.assertEquals(Float.valueOf(198), hero.appearance.height.get());
+        Assert.assertFalse(hero.appearance.weight.isPresent());
+        Assert.assertFalse(hero.identity.birthPlace.isPresent());
+        Assert.assertEquals(100, hero.skills.intelligence);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        Hero ironMan = HeroSamples.ironMan();
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), ironMan, EncoderContext.builder().build());
+        Hero hero = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+        Assert.assertEquals(ironMan.id, hero.id);
+        Assert.assertEquals(ironMan.name, hero.name);
+        Assert.assertEquals(ironMan.powers, hero.powers);
+        Assert.assertEquals(ironMan.identity.aliases, hero.identity.aliases);
+        Assert.assertEquals(ironMan.identity.yearAppearance, hero.identity.yearAppearance);
+        Assert.assertEquals(ironMan.skills.power, hero.skills.power);
+    }
+}
@@ -0,0 +1,52 @@
+package codecs;
+
+import models.Hero;
+import models.HeroSummary;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.junit.Assert;
+import org.junit.Test;
+import utils.HeroSamples;
+
+public class HeroSummaryCodecTest {
+
+    private final HeroSummaryCodec codec = new HeroSummaryCodec();
+
+    @Test
+    public void testDecodingProjectedDocument() {
+        BsonDocument document = BsonDocument.parse("{\"id\": \"1009368\", \"name\": \"Iron Man\", \"imageUrl\": \"https://image.url\", " +
+                "\"identity\": {\"universe\": \"Marvel\"}}");
+        HeroSummary summary = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+        Assert.assertEquals("1009368", summary.id);
+        Assert.assertEquals("Iron Man", summary.name);
+        Assert.assertEquals("https://image.url", summary.imageUrl);
+        Assert.assertEquals("Marvel", summary.universe);
+    }
+
+    @Test
+    public void testDecodingFullHeroDocument() throws Exception {
+        Hero ironMan = HeroSamples.ironMan();
+        BsonDocument document = new BsonDocument();
+        new HeroCodec().encode(new BsonDocumentWriter(document), ironMan, EncoderContext.builder().build());
+        HeroSummary summary = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+        Assert.assertEquals(ironMan.id, summary.id);
+        Assert.assertEquals(ironMan.name, summary.name);
+        Assert.assertEquals(ironMan.imageUrl, summary.imageUrl);
+        Assert.assertEquals(ironMan.identity.universe, summary.universe);
+    }
+
+    @Test
+    public void testRoundTrip() {
+        HeroSummary spiderMan = new HeroSummary("1009610", "Spider-Man", "https://image.url", "Marvel");
+        BsonDocument document = new BsonDocument();
+        codec.encode(new BsonDocumentWriter(document), spiderMan, EncoderContext.builder().build());
+        HeroSummary summary = codec.decode(new BsonDocumentReader(document), DecoderContext.builder().build());
+        Assert.assertEquals(spiderMan.id, summary.id);
+        Assert.assertEquals(spiderMan.name, summary.name);
+        Assert.assertEquals(spiderMan.imageUrl, summary.imageUrl);
+        Assert.assertEquals(spiderMan.universe, summary.universe);
+    }
+}
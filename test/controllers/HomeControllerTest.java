@@ -8,8 +8,11 @@ import play.mvc.Result;
 import play.test.WithApplication;
 
 import static org.junit.Assert.assertEquals;
+import static play.mvc.Http.Status.BAD_REQUEST;
+import static play.mvc.Http.Status.NOT_FOUND;
 import static play.mvc.Http.Status.OK;
 import static play.test.Helpers.GET;
+import static play.test.Helpers.POST;
 import static play.test.Helpers.route;
 
 public class HomeControllerTest extends WithApplication {
@@ -29,4 +32,24 @@ public class HomeControllerTest extends WithApplication {
         assertEquals(OK, result.status());
     }
 
+    @Test
+    public void invalidCursorIsRejected() {
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(GET)
+                .uri("/heroes/_search?q=iron&page=2&cursor=not-a-cursor");
+
+        Result result = route(app, request);
+        assertEquals(BAD_REQUEST, result.status());
+    }
+
+    @Test
+    public void reindexIsHiddenWithoutAdminToken() {
+        Http.RequestBuilder request = new Http.RequestBuilder()
+                .method(POST)
+                .uri("/heroes/_reindex");
+
+        Result result = route(app, request);
+        assertEquals(NOT_FOUND, result.status());
+    }
+
 }
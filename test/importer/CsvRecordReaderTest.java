@@ -0,0 +1,28 @@
+package importer;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class CsvRecordReaderTest {
+
+    @Test
+    public void testRecords() throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new StringReader("id,name\r\n1,\"Iron\r\nMan\"\n\n2,Hulk"));
+        Assert.assertEquals("id,name", reader.readRecord());
+        Assert.assertEquals("1,\"Iron\r\nMan\"", reader.readRecord());
+        Assert.assertEquals("2,Hulk", reader.readRecord());
+        Assert.assertNull(reader.readRecord());
+    }
+
+    @Test
+    public void testFields() {
+        Assert.assertEquals(Arrays.asList("1011334", "3-D Man", "", "Agility,Super Strength", "He said \"hi\"", ""),
+                CsvRecordReader.fields("1011334,\"3-D Man\",\"\",\"Agility,Super Strength\",\"He said \"\"hi\"\"\","));
+        Assert.assertEquals(Collections.singletonList(""), CsvRecordReader.fields(""));
+    }
+}
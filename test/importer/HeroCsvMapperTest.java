@@ -0,0 +1,36 @@
+package importer;
+
+import models.Hero;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class HeroCsvMapperTest {
+
+    private static final String HEADER = "id,name,description,imageUrl,backgroundImageUrl,externalLink,secretIdentities,birthPlace,occupation,aliases,alignment,firstAppearance,yearAppearance,universe,gender,race,type,height,weight,eyeColor,hairColor,teams,powers,partners,intelligence,strength,speed,durability,power,combat,creators";
+
+    @Test
+    public void testMapping() {
+        HeroCsvMapper mapper = new HeroCsvMapper(CsvRecordReader.fields(HEADER));
+        Hero hero = mapper.toHero(CsvRecordReader.fields("1011334,\"3-D Man\",\"\",https://image.url,https://background.url,\"https://marvel.com/universe/3-D_Man_(Chandler)\",\"\",\"-\",\"Test pilot, adventurer\",\"\",good,\"-\",1963,Marvel,Male,,,188,,,,\"\",\"Agility,Super Strength,Stamina\",\"\",50,31,43,32,25,52,\"\""));
+        Assert.assertEquals("1011334", hero.id);
+        Assert.assertEquals("3-D Man", hero.name);
+        Assert.assertFalse(hero.description.isPresent());
+        Assert.assertEquals("Test pilot, adventurer", hero.identity.occupation.get());
+        Assert.assertEquals(Integer.valueOf(1963), hero.identity.yearAppearance.get());
+        Assert.assertEquals("Marvel", hero.identity.universe);
+        Assert.assertEquals(Float.valueOf(188), hero.appearance.height.get());
+        Assert.assertFalse(hero.appearance.weight.isPresent());
+        Assert.assertEquals(Arrays.asList("Agility", "Super Strength", "Stamina"), hero.powers);
+        Assert.assertEquals(Collections.emptyList(), hero.teams);
+        Assert.assertEquals(50, hero.skills.intelligence);
+        Assert.assertEquals(52, hero.skills.combat);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMissingIdColumn() {
+        new HeroCsvMapper(Arrays.asList("name", "universe"));
+    }
+}
@@ -0,0 +1,100 @@
+package loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import play.libs.Json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * OTLP/HTTP collector stand-in: receives the traces exported by {@link tracing.Tracer} and tallies, per traced route,
+ * how often each backend call was on the critical path and how long it took on average.
+ */
+final class FakeCollector implements Closeable {
+
+    private static final class Leg {
+        long critical;
+        long count;
+        long totalNanos;
+    }
+
+    private final HttpServer server;
+    private final Map<String, Long> requests = new TreeMap<>();
+    private final Map<String, Map<String, Leg>> legs = new TreeMap<>();
+    private volatile boolean recording;
+
+    FakeCollector() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1/traces", this::collect);
+        server.start();
+    }
+
+    String endpoint() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v1/traces";
+    }
+
+    /**
+     * Starts tallying, traces received before being ignored as part of the warmup.
+     */
+    void record() {
+        recording = true;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void collect(HttpExchange exchange) throws IOException {
+        try {
+            final JsonNode spans = Json.parse(exchange.getRequestBody()).at("/resourceSpans/0/scopeSpans/0/spans");
+            if (recording) {
+                tally(spans);
+            }
+            exchange.sendResponseHeaders(200, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private synchronized void tally(JsonNode spans) {
+        // Root spans come before their children, and carry the name of the critical one
+        final Map<String, String> rootNames = new TreeMap<>();
+        final Map<String, String> criticalPaths = new TreeMap<>();
+        for (JsonNode span : spans) {
+            if (!span.has("parentSpanId")) {
+                final String name = span.get("name").asText();
+                rootNames.put(span.get("spanId").asText(), name);
+                requests.merge(name, 1L, Long::sum);
+                for (JsonNode attribute : span.path("attributes")) {
+                    if ("critical_path".equals(attribute.get("key").asText())) {
+                        criticalPaths.put(span.get("spanId").asText(), attribute.at("/value/stringValue").asText());
+                    }
+                }
+                continue;
+            }
+            final String parent = span.get("parentSpanId").asText();
+            final String root = rootNames.getOrDefault(parent, "?");
+            final Leg leg = legs.computeIfAbsent(root, r -> new TreeMap<>()).computeIfAbsent(span.get("name").asText(), l -> new Leg());
+            leg.count++;
+            leg.totalNanos += Long.parseLong(span.get("endTimeUnixNano").asText()) - Long.parseLong(span.get("startTimeUnixNano").asText());
+            if (span.get("name").asText().equals(criticalPaths.get(parent))) {
+                leg.critical++;
+            }
+        }
+    }
+
+    synchronized String report() {
+        final StringBuilder report = new StringBuilder(String.format(Locale.ROOT, "%-18s %-18s %10s %10s%n", "traced route", "leg", "critical", "mean ms"));
+        legs.forEach((root, rootLegs) -> rootLegs.forEach((name, leg) -> report.append(String.format(Locale.ROOT, "%-18s %-18s %9.1f%% %10.2f%n",
+                root, name, 100d * leg.critical / requests.getOrDefault(root, 1L), leg.totalNanos / 1e6 / leg.count))));
+        return report.toString();
+    }
+}
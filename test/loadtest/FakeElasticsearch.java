@@ -0,0 +1,137 @@
+package loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import models.Hero;
+import play.libs.Json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Elasticsearch stand-in answering the search and suggest requests of {@link repository.ElasticRepository} with a
+ * case-insensitive match on hero names, after an optional fixed delay standing for the network and the search itself.
+ */
+final class FakeElasticsearch implements Closeable {
+
+    private final List<Hero> heroes;
+    private final long latencyMillis;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    FakeElasticsearch(List<Hero> heroes, long latencyMillis, int threads) throws IOException {
+        this.heroes = heroes.stream().sorted(Comparator.comparing(hero -> hero.id)).collect(Collectors.toList());
+        this.latencyMillis = latencyMillis;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/heroes/_search", this::search);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String uri() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void search(HttpExchange exchange) throws IOException {
+        try {
+            final JsonNode request = Json.parse(exchange.getRequestBody());
+            if (latencyMillis > 0) {
+                Thread.sleep(latencyMillis);
+            }
+            respond(exchange, request.has("suggest") ? suggest(request.get("suggest")) : search(request));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            exchange.sendResponseHeaders(400, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private ObjectNode search(JsonNode request) {
+        final String query = request.at("/query/query_string/query").asText().replaceAll("[*~]$", "");
+        final List<Hero> matching = matching(query, false);
+        final int size = request.path("size").asInt(10);
+        final ArrayNode hits = Json.newArray();
+        if (request.has("sort")) {
+            // Every hit gets the same score, so search_after only has to follow the _id tiebreaker
+            final String after = request.at("/search_after/1").asText("");
+            matching.stream().filter(hero -> hero.id.compareTo(after) > 0).limit(size)
+                    .forEach(hero -> hits.add(hit(hero).set("sort", Json.newArray().add(1.0).add(hero.id))));
+        } else {
+            matching.stream().skip(request.path("from").asInt(0)).limit(size).forEach(hero -> hits.add(hit(hero)));
+        }
+        final ObjectNode response = Json.newObject();
+        response.put("took", latencyMillis);
+        final ObjectNode hitsNode = response.putObject("hits");
+        hitsNode.putObject("total").put("value", matching.size()).put("relation", "eq");
+        hitsNode.set("hits", hits);
+        return response;
+    }
+
+    private ObjectNode suggest(JsonNode suggest) {
+        final ObjectNode response = Json.newObject();
+        final ObjectNode suggestions = response.putObject("suggest");
+        suggest.fields().forEachRemaining(field -> {
+            final String prefix = field.getValue().path("prefix").asText();
+            final ArrayNode options = Json.newArray();
+            matching(prefix, true).stream().limit(5).forEach(hero -> options.add(hit(hero)));
+            final ObjectNode entry = suggestions.putArray(field.getKey()).addObject();
+            entry.put("text", prefix);
+            entry.set("options", options);
+        });
+        return response;
+    }
+
+    private List<Hero> matching(String text, boolean prefix) {
+        final String lowerCase = text.toLowerCase(Locale.ROOT);
+        return heroes.stream()
+                .filter(hero -> {
+                    final String name = hero.name.toLowerCase(Locale.ROOT);
+                    return prefix ? name.startsWith(lowerCase) : name.contains(lowerCase);
+                })
+                .collect(Collectors.toList());
+    }
+
+    private static ObjectNode hit(Hero hero) {
+        final ObjectNode hit = Json.newObject();
+        hit.put("_index", "heroes");
+        hit.put("_id", hero.id);
+        hit.put("_score", 1.0);
+        final ObjectNode source = hit.putObject("_source");
+        source.put("name", hero.name);
+        source.put("imageUrl", hero.imageUrl);
+        source.put("universe", hero.identity == null ? null : hero.identity.universe);
+        source.put("gender", hero.appearance == null ? "" : hero.appearance.gender.orElse(""));
+        return hit;
+    }
+
+    private static void respond(HttpExchange exchange, JsonNode body) throws IOException {
+        final byte[] bytes = Json.stringify(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package loadtest;
+
+import codecs.HeroCodec;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import models.Hero;
+import models.HeroSummary;
+import models.ItemCount;
+import models.YearAndUniverseStat;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.codecs.EncoderContext;
+import org.bson.conversions.Bson;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import repository.BsonFilterMatcher;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * In-memory stand-in for the heroes database, serving the queries and aggregations of
+ * {@link repository.MongoDBRepository} from a fixed list of heroes. Builder methods of the driver's publishers, such
+ * as {@code projection} or {@code batchSize}, are accepted and ignored; change streams stay silent.
+ */
+final class FakeMongoDatabase {
+
+    private static final HeroCodec HERO_CODEC = new HeroCodec();
+
+    private final List<Hero> heroes;
+    private final Map<String, Hero> heroesById;
+
+    FakeMongoDatabase(List<Hero> heroes) {
+        this.heroes = heroes;
+        this.heroesById = heroes.stream().collect(Collectors.toMap(hero -> hero.id, hero -> hero, (h1, h2) -> h1));
+    }
+
+    MongoDatabase database() {
+        return proxy(MongoDatabase.class, (method, args) -> {
+            if (method.getName().equals("getCollection")) {
+                return collection();
+            }
+            throw new UnsupportedOperationException("MongoDatabase." + method.getName());
+        });
+    }
+
+    private MongoCollection<?> collection() {
+        return proxy(MongoCollection.class, (method, args) -> {
+            switch (method.getName()) {
+                case "find":
+                    final Bson filter = args.length == 2 ? (Bson) args[0] : null;
+                    final Class<?> resultClass = (Class<?>) args[args.length - 1];
+                    return publisher(method.getReturnType(), () -> find(filter, resultClass));
+                case "aggregate":
+                    return publisher(method.getReturnType(), () -> aggregate((List<?>) args[0], (Class<?>) args[1]));
+                case "watch":
+                    return publisher(method.getReturnType(), null);
+                case "withDocumentClass":
+                case "withCodecRegistry":
+                    return collection();
+                default:
+                    throw new UnsupportedOperationException("MongoCollection." + method.getName());
+            }
+        });
+    }
+
+    private List<?> find(Bson filter, Class<?> resultClass) {
+        List<Hero> found = heroes;
+        if (filter != null) {
+            final BsonDocument query = filter.toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry());
+            final BsonValue id = query.get("id");
+            if (id.isString()) {
+                found = Optional.ofNullable(heroesById.get(id.asString().getValue())).map(Collections::singletonList).orElse(Collections.emptyList());
+            } else {
+                final BsonArray ids = id.asDocument().getArray("$in");
+                found = ids.stream().map(value -> heroesById.get(value.asString().getValue())).filter(hero -> hero != null).collect(Collectors.toList());
+            }
+        }
+        if (resultClass == HeroSummary.class) {
+            return found.stream().map(HeroSummary::fromHero).collect(Collectors.toList());
+        }
+        return found;
+    }
+
+    private List<?> aggregate(List<?> pipeline, Class<?> resultClass) {
+        if (resultClass == YearAndUniverseStat.class) {
+            // The $match stage runs for real on the heroes as stored by importer.HeroImporter; MongoDB groups heroes
+            // without a year under null, decoded as year 0
+            final Bson match = ((Bson) pipeline.get(0)).toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry()).getDocument("$match");
+            final Map<Integer, Map<String, Long>> byYear = heroes.stream()
+                    .filter(hero -> hero.identity != null && hero.identity.universe != null && BsonFilterMatcher.matches(match, document(hero)))
+                    .collect(Collectors.groupingBy(hero -> hero.identity.yearAppearance.orElse(0), TreeMap::new,
+                            Collectors.groupingBy(hero -> hero.identity.universe, Collectors.counting())));
+            return byYear.entrySet().stream()
+                    .map(year -> new YearAndUniverseStat(year.getKey(), itemCounts(year.getValue())))
+                    .collect(Collectors.toList());
+        }
+        final BsonDocument firstStage = ((Bson) pipeline.get(0)).toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry());
+        if (firstStage.containsKey("$unwind")) {
+            final int limit = ((Bson) pipeline.get(pipeline.size() - 1)).toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry()).getInt32("$limit").getValue();
+            return itemCounts(heroes.stream().flatMap(hero -> (hero.powers == null ? Stream.<String>empty() : hero.powers.stream())).collect(Collectors.groupingBy(Function.identity(), Collectors.counting())))
+                    .stream()
+                    .sorted(Comparator.comparingInt((ItemCount itemCount) -> itemCount.count).reversed())
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+        return itemCounts(heroes.stream()
+                .filter(hero -> hero.identity != null && hero.identity.universe != null)
+                .collect(Collectors.groupingBy(hero -> hero.identity.universe, Collectors.counting())));
+    }
+
+    private static BsonDocument document(Hero hero) {
+        final BsonDocument document = new BsonDocument();
+        HERO_CODEC.encode(new BsonDocumentWriter(document), hero, EncoderContext.builder().build());
+        return document;
+    }
+
+    private static List<ItemCount> itemCounts(Map<String, Long> counts) {
+        return counts.entrySet().stream().map(count -> new ItemCount(count.getKey(), count.getValue().intValue())).collect(Collectors.toList());
+    }
+
+    /**
+     * A publisher of {@code type} emitting the results of {@code results} on each subscription, or nothing if null.
+     */
+    private static Object publisher(Class<?> type, Supplier<List<?>> results) {
+        return proxy(type, (method, args) -> {
+            if (method.getName().equals("subscribe")) {
+                final Subscriber<Object> subscriber = (Subscriber<Object>) args[0];
+                subscriber.onSubscribe(results == null ? new SilentSubscription() : new ListSubscription(subscriber, results.get()));
+                return null;
+            }
+            if (method.getName().equals("first")) {
+                return (Publisher<Object>) subscriber -> {
+                    final List<?> all = results.get();
+                    subscriber.onSubscribe(new ListSubscription(subscriber, all.isEmpty() ? all : all.subList(0, 1)));
+                };
+            }
+            if (method.getReturnType().isAssignableFrom(type)) {
+                return publisher(type, results);
+            }
+            throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        final InvocationHandler invocationHandler = (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                switch (method.getName()) {
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        return type.getSimpleName() + " stand-in";
+                }
+            }
+            return handler.invoke(method, args == null ? new Object[0] : args);
+        };
+        return type.cast(Proxy.newProxyInstance(FakeMongoDatabase.class.getClassLoader(), new Class<?>[]{type}, invocationHandler));
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object invoke(Method method, Object[] args);
+    }
+
+    private static final class SilentSubscription implements Subscription {
+        @Override
+        public void request(long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+
+    /**
+     * Emits a list on demand, looping rather than recursing when subscribers request more from {@code onNext}.
+     */
+    private static final class ListSubscription implements Subscription {
+        private final Subscriber<Object> subscriber;
+        private final List<?> values;
+        private long demand;
+        private int next;
+        private boolean emitting;
+        private boolean done;
+
+        ListSubscription(Subscriber<Object> subscriber, List<?> values) {
+            this.subscriber = subscriber;
+            this.values = values;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            demand += n;
+            if (emitting) {
+                return;
+            }
+            emitting = true;
+            while (!done && demand > 0 && next < values.size()) {
+                demand--;
+                subscriber.onNext(values.get(next++));
+            }
+            if (!done && next == values.size()) {
+                done = true;
+                subscriber.onComplete();
+            }
+            emitting = false;
+        }
+
+        @Override
+        public synchronized void cancel() {
+            done = true;
+        }
+    }
+}
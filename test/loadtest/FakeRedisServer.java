@@ -0,0 +1,303 @@
+package loadtest;
+
+import play.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Single-process Redis speaking just enough of the RESP protocol for {@link repository.RedisRepository} and
+ * {@link repository.InvalidationBus}: strings with {@code SET NX}, sorted sets and pub/sub. Commands are applied one at
+ * a time under a global lock, which is also how a real Redis serves them.
+ */
+final class FakeRedisServer implements Closeable {
+
+    private static final Logger.ALogger LOGGER = Logger.of("FakeRedisServer");
+
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "fake-redis");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<String, Map<String, Double>> sortedSets = new HashMap<>();
+    private final Map<String, Set<Connection>> subscribers = new ConcurrentHashMap<>();
+
+    FakeRedisServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        connections.execute(this::accept);
+    }
+
+    int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                final Connection connection = new Connection(serverSocket.accept());
+                connections.execute(connection::serve);
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    LOGGER.error("Cannot accept Redis connection", e);
+                }
+            }
+        }
+    }
+
+    private final class Connection {
+        private final Socket socket;
+        private final InputStream in;
+        private final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new BufferedInputStream(socket.getInputStream());
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+        }
+
+        void serve() {
+            try (Socket ignored = socket) {
+                while (true) {
+                    final List<String> command = readCommand();
+                    synchronized (this) {
+                        execute(command);
+                        // Pipelined commands are answered in a single write once the client stops sending
+                        if (in.available() == 0) {
+                            out.flush();
+                        }
+                    }
+                }
+            } catch (EOFException e) {
+                // Client disconnected
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    LOGGER.warn("Redis connection closed: " + e.getMessage());
+                }
+            } finally {
+                subscribers.values().forEach(connections -> connections.remove(this));
+            }
+        }
+
+        private List<String> readCommand() throws IOException {
+            final String header = readLine();
+            if (!header.startsWith("*")) {
+                throw new IOException("Inline commands are not supported: " + header);
+            }
+            final int count = Integer.parseInt(header.substring(1));
+            final List<String> command = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                final int length = Integer.parseInt(readLine().substring(1));
+                final byte[] bytes = in.readNBytes(length + 2);
+                if (bytes.length < length + 2) {
+                    throw new EOFException();
+                }
+                command.add(new String(bytes, 0, length, StandardCharsets.UTF_8));
+            }
+            return command;
+        }
+
+        private String readLine() throws IOException {
+            final ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\r') {
+                if (b == -1) {
+                    throw new EOFException();
+                }
+                line.write(b);
+            }
+            in.read();
+            return line.toString(StandardCharsets.UTF_8);
+        }
+
+        private void execute(List<String> command) throws IOException {
+            final String name = command.get(0).toUpperCase();
+            switch (name) {
+                case "PING":
+                    simple("PONG");
+                    break;
+                case "AUTH":
+                case "SELECT":
+                case "CLIENT":
+                    simple("OK");
+                    break;
+                case "SUBSCRIBE":
+                    for (int i = 1; i < command.size(); i++) {
+                        subscribers.computeIfAbsent(command.get(i), channel -> new CopyOnWriteArraySet<>()).add(this);
+                        arrayHeader(3);
+                        bulk("subscribe");
+                        bulk(command.get(i));
+                        integer(i);
+                    }
+                    break;
+                case "PUBLISH":
+                    integer(publish(command.get(1), command.get(2)));
+                    break;
+                default:
+                    synchronized (FakeRedisServer.this) {
+                        executeData(name, command);
+                    }
+            }
+        }
+
+        private void executeData(String name, List<String> command) throws IOException {
+            final String key = command.size() > 1 ? command.get(1) : "";
+            switch (name) {
+                case "GET":
+                    bulk(strings.get(key));
+                    break;
+                case "SET":
+                    final boolean nx = command.stream().skip(3).anyMatch("NX"::equalsIgnoreCase);
+                    if (nx && strings.containsKey(key)) {
+                        bulk(null);
+                    } else {
+                        strings.put(key, command.get(2));
+                        simple("OK");
+                    }
+                    break;
+                case "ZINCRBY":
+                    bulk(score(sortedSet(key).merge(command.get(3), Double.parseDouble(command.get(2)), Double::sum)));
+                    break;
+                case "ZADD":
+                    int added = 0;
+                    for (int i = 2; i + 1 < command.size(); i += 2) {
+                        if (sortedSet(key).put(command.get(i + 1), Double.parseDouble(command.get(i))) == null) {
+                            added++;
+                        }
+                    }
+                    integer(added);
+                    break;
+                case "ZREMRANGEBYRANK":
+                    final List<Map.Entry<String, Double>> ranked = ranked(key, false);
+                    final int[] range = range(ranked.size(), command.get(2), command.get(3));
+                    for (int i = range[0]; i < range[1]; i++) {
+                        sortedSet(key).remove(ranked.get(i).getKey());
+                    }
+                    integer(range[1] - range[0]);
+                    break;
+                case "ZRANGE":
+                case "ZREVRANGE":
+                    final List<Map.Entry<String, Double>> entries = ranked(key, name.equals("ZREVRANGE"));
+                    final int[] slice = range(entries.size(), command.get(2), command.get(3));
+                    final boolean withScores = command.size() > 4 && "WITHSCORES".equalsIgnoreCase(command.get(4));
+                    arrayHeader((slice[1] - slice[0]) * (withScores ? 2 : 1));
+                    for (int i = slice[0]; i < slice[1]; i++) {
+                        bulk(entries.get(i).getKey());
+                        if (withScores) {
+                            bulk(score(entries.get(i).getValue()));
+                        }
+                    }
+                    break;
+                default:
+                    error("ERR unknown command '" + name + "'");
+            }
+        }
+
+        private void push(String channel, String message) {
+            try {
+                synchronized (this) {
+                    arrayHeader(3);
+                    bulk("message");
+                    bulk(channel);
+                    bulk(message);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Cannot deliver message on " + channel + ": " + e.getMessage());
+            }
+        }
+
+        private void simple(String value) throws IOException {
+            write("+" + value + "\r\n");
+        }
+
+        private void error(String message) throws IOException {
+            write("-" + message + "\r\n");
+        }
+
+        private void integer(long value) throws IOException {
+            write(":" + value + "\r\n");
+        }
+
+        private void arrayHeader(int size) throws IOException {
+            write("*" + size + "\r\n");
+        }
+
+        private void bulk(String value) throws IOException {
+            if (value == null) {
+                write("$-1\r\n");
+                return;
+            }
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            write("$" + bytes.length + "\r\n");
+            out.write(bytes);
+            write("\r\n");
+        }
+
+        private void write(String value) throws IOException {
+            out.write(value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private int publish(String channel, String message) {
+        final Set<Connection> receivers = subscribers.getOrDefault(channel, Set.of());
+        receivers.forEach(connection -> connection.push(channel, message));
+        return receivers.size();
+    }
+
+    private Map<String, Double> sortedSet(String key) {
+        return sortedSets.computeIfAbsent(key, k -> new HashMap<>());
+    }
+
+    /**
+     * Members by score then lexicographically, as Redis orders them.
+     */
+    private List<Map.Entry<String, Double>> ranked(String key, boolean reverse) {
+        final Comparator<Map.Entry<String, Double>> order = Map.Entry.<String, Double>comparingByValue().thenComparing(Map.Entry.comparingByKey());
+        final List<Map.Entry<String, Double>> entries = new ArrayList<>(sortedSet(key).entrySet());
+        entries.sort(reverse ? order.reversed() : order);
+        return entries;
+    }
+
+    /**
+     * Inclusive Redis ranks, possibly negative, as a half-open range clamped to {@code size}.
+     */
+    private static int[] range(int size, String start, String stop) {
+        int from = Integer.parseInt(start);
+        int to = Integer.parseInt(stop);
+        from = Math.max(0, from < 0 ? size + from : from);
+        to = Math.min(size - 1, to < 0 ? size + to : to);
+        return from > to ? new int[]{0, 0} : new int[]{from, to + 1};
+    }
+
+    private static String score(double score) {
+        return score == Math.rint(score) && !Double.isInfinite(score) ? Long.toString((long) score) : Double.toString(score);
+    }
+}
@@ -0,0 +1,268 @@
+package loadtest;
+
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import importer.CsvRecordReader;
+import importer.HeroCsvMapper;
+import models.Hero;
+import play.Application;
+import play.inject.guice.GuiceApplicationBuilder;
+import play.test.Helpers;
+import play.test.TestServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static play.inject.Bindings.bind;
+
+/**
+ * End-to-end load test of the public routes. The application runs in-process against local stand-ins for MongoDB,
+ * Elasticsearch and Redis, all serving the heroes of {@code scripts/all-heroes.csv}, so that the numbers measure the
+ * application rather than the backends. Closed-loop virtual users each send one request at a time, following a mix
+ * of routes weighted like the traffic of the UI, and latency percentiles and throughput are reported per route once
+ * the warmup is over.
+ * <p>
+ * Run with {@code sbt "test:runMain loadtest.LoadTest"}, tuned with the system properties below. Setting
+ * {@code loadtest.target} to a base URL loads an already running deployment instead.
+ * <ul>
+ * <li>{@code loadtest.users}: concurrent virtual users (32)</li>
+ * <li>{@code loadtest.warmup}: seconds before latencies are recorded (10)</li>
+ * <li>{@code loadtest.duration}: seconds of recording (30)</li>
+ * <li>{@code loadtest.elasticLatency}: milliseconds each Elasticsearch request takes (2)</li>
+ * <li>{@code loadtest.tracing}: export traces to a collector stand-in and report the critical path of the traced
+ * routes (false)</li>
+ * </ul>
+ */
+public class LoadTest {
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * A weighted route of the mix, building a request path from the dataset.
+     */
+    private static final class Route {
+        final String name;
+        final int weight;
+        final Function<List<Hero>, String> path;
+        final LatencyRecorder latencies = new LatencyRecorder();
+
+        Route(String name, int weight, Function<List<Hero>, String> path) {
+            this.name = name;
+            this.weight = weight;
+            this.path = path;
+        }
+    }
+
+    /**
+     * Latencies and errors recorded by all virtual users, percentiles being computed once at the end.
+     */
+    private static final class LatencyRecorder {
+        private long[] nanos = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void record(long latencyNanos, boolean success) {
+            if (!success) {
+                errors++;
+            }
+            if (count == nanos.length) {
+                nanos = Arrays.copyOf(nanos, count * 2);
+            }
+            nanos[count++] = latencyNanos;
+        }
+
+        synchronized String report(String name, long durationNanos) {
+            final long[] sorted = Arrays.copyOf(nanos, count);
+            Arrays.sort(sorted);
+            final double throughput = count * 1_000_000_000d / durationNanos;
+            return String.format(Locale.ROOT, "%-18s %9d %7d %10.1f %9.2f %9.2f %9.2f",
+                    name, count, errors, throughput, millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                    millis(sorted.length == 0 ? 0 : sorted[sorted.length - 1]));
+        }
+
+        private static long percentile(long[] sorted, double percentile) {
+            return sorted.length == 0 ? 0 : sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+        }
+
+        private static double millis(long nanos) {
+            return (double) nanos / NANOS_PER_MILLI;
+        }
+    }
+
+    private static final List<Route> ROUTES = List.of(
+            new Route("/", 10, heroes -> "/"),
+            new Route("/heroes/_search", 30, heroes -> "/heroes/_search?page=1&q=" + encode(firstWord(random(heroes).name))),
+            new Route("/heroes/_suggest", 35, heroes -> "/heroes/_suggest?q=" + encode(prefix(random(heroes).name))),
+            new Route("/heroes/:heroId", 20, heroes -> "/heroes/" + encode(random(heroes).id)),
+            new Route("/stats", 5, heroes -> "/stats")
+    );
+
+    public static void main(String[] args) throws Exception {
+        final int users = Integer.getInteger("loadtest.users", 32);
+        final long warmupNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("loadtest.warmup", 10));
+        final long durationNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("loadtest.duration", 30));
+        final List<Hero> heroes = readHeroes(System.getProperty("loadtest.csv", "scripts/all-heroes.csv"));
+        final String target = System.getProperty("loadtest.target");
+
+        if (target != null) {
+            run(target, heroes, users, warmupNanos, durationNanos, () -> {});
+            return;
+        }
+
+        final boolean tracing = Boolean.getBoolean("loadtest.tracing");
+        try (FakeRedisServer redis = new FakeRedisServer();
+             FakeElasticsearch elastic = new FakeElasticsearch(heroes, Long.getLong("loadtest.elasticLatency", 2), users);
+             FakeCollector collector = new FakeCollector()) {
+            final Application application = new GuiceApplicationBuilder()
+                    .configure("tracing.enabled", tracing)
+                    .configure("tracing.exporter", "otlp")
+                    .configure("tracing.endpoint", collector.endpoint())
+                    .configure("elastic.host", elastic.uri())
+                    .configure("redis.host", "127.0.0.1")
+                    .configure("redis.port", redis.port())
+                    .configure("redis.password", "")
+                    // The stand-in has no change streams to follow
+                    .configure("changes.enabled", false)
+                    .overrides(bind(MongoDatabase.class).toInstance(new FakeMongoDatabase(heroes).database()))
+                    .build();
+            final int port = freePort();
+            final TestServer server = Helpers.testServer(port, application);
+            server.start();
+            try {
+                run("http://127.0.0.1:" + port, heroes, users, warmupNanos, durationNanos, collector::record);
+            } finally {
+                server.stop();
+            }
+            if (tracing) {
+                System.out.println();
+                System.out.print(collector.report());
+            }
+        }
+    }
+
+    private static void run(String baseUrl, List<Hero> heroes, int users, long warmupNanos, long durationNanos, Runnable onRecording) throws InterruptedException {
+        final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        final int totalWeight = ROUTES.stream().mapToInt(route -> route.weight).sum();
+        final long start = System.nanoTime();
+        final long recordFrom = start + warmupNanos;
+        final long end = recordFrom + durationNanos;
+
+        System.out.println("Loading " + baseUrl + " with " + users + " users, " + heroes.size() + " heroes, "
+                + TimeUnit.NANOSECONDS.toSeconds(warmupNanos) + "s warmup then " + TimeUnit.NANOSECONDS.toSeconds(durationNanos) + "s recorded");
+
+        final ExecutorService virtualUsers = Executors.newFixedThreadPool(users);
+        for (int i = 0; i < users; i++) {
+            virtualUsers.execute(() -> {
+                while (System.nanoTime() < end) {
+                    final Route route = pick(totalWeight);
+                    final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + route.path.apply(heroes)))
+                            .timeout(Duration.ofSeconds(10))
+                            .build();
+                    final long sent = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                    } catch (IOException e) {
+                        success = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    final long received = System.nanoTime();
+                    if (sent >= recordFrom && received <= end) {
+                        route.latencies.record(received - sent, success);
+                    }
+                }
+            });
+        }
+        virtualUsers.shutdown();
+        TimeUnit.NANOSECONDS.sleep(recordFrom - System.nanoTime());
+        onRecording.run();
+        virtualUsers.awaitTermination(end - System.nanoTime() + TimeUnit.SECONDS.toNanos(30), TimeUnit.NANOSECONDS);
+
+        System.out.println(String.format(Locale.ROOT, "%-18s %9s %7s %10s %9s %9s %9s", "route", "requests", "errors", "req/s", "p50 ms", "p99 ms", "max ms"));
+        final LatencyRecorder all = new LatencyRecorder();
+        for (Route route : ROUTES) {
+            System.out.println(route.latencies.report(route.name, durationNanos));
+            synchronized (route.latencies) {
+                for (int i = 0; i < route.latencies.count; i++) {
+                    all.record(route.latencies.nanos[i], true);
+                }
+                all.errors += route.latencies.errors;
+            }
+        }
+        System.out.println(all.report("all", durationNanos));
+    }
+
+    private static Route pick(int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Route route : ROUTES) {
+            roll -= route.weight;
+            if (roll < 0) {
+                return route;
+            }
+        }
+        return ROUTES.get(ROUTES.size() - 1);
+    }
+
+    private static Hero random(List<Hero> heroes) {
+        return heroes.get(ThreadLocalRandom.current().nextInt(heroes.size()));
+    }
+
+    private static String firstWord(String name) {
+        final String[] words = name.split("[^\\p{L}\\p{N}]+");
+        return Arrays.stream(words).filter(word -> !word.isEmpty()).findFirst().orElse(name);
+    }
+
+    /**
+     * What a user has typed when the suggestions are requested, one to four characters.
+     */
+    private static String prefix(String name) {
+        return name.substring(0, Math.min(name.length(), 1 + ThreadLocalRandom.current().nextInt(4)));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static List<Hero> readHeroes(String csv) {
+        try (CsvRecordReader reader = new CsvRecordReader(Files.newBufferedReader(Paths.get(csv), StandardCharsets.UTF_8))) {
+            final HeroCsvMapper mapper = new HeroCsvMapper(CsvRecordReader.fields(reader.readRecord()));
+            final List<Hero> heroes = new ArrayList<>();
+            String record;
+            while ((record = reader.readRecord()) != null) {
+                heroes.add(mapper.toHero(CsvRecordReader.fields(record)));
+            }
+            return heroes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package metrics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsSplitEachPowerOfTwo() {
+        final long octave = LatencyHistogram.MIN_NANOS * 4;
+        Assert.assertEquals(LatencyHistogram.index(octave), LatencyHistogram.index(octave + octave / 4 - 1));
+        Assert.assertEquals(LatencyHistogram.index(octave) + 1, LatencyHistogram.index(octave + octave / 4));
+        Assert.assertEquals(LatencyHistogram.index(octave) + 4, LatencyHistogram.index(octave * 2));
+        Assert.assertEquals(octave + octave / 4, LatencyHistogram.upperBound(LatencyHistogram.index(octave)));
+    }
+
+    @Test
+    public void everyValueIsBelowTheUpperBoundOfItsBucket() {
+        for (long nanos = LatencyHistogram.MIN_NANOS; nanos < LatencyHistogram.MAX_NANOS; nanos = nanos * 3 / 2 + 7) {
+            final int index = LatencyHistogram.index(nanos);
+            Assert.assertTrue(nanos < LatencyHistogram.upperBound(index));
+            Assert.assertTrue(index == 0 || nanos >= LatencyHistogram.upperBound(index - 1));
+        }
+    }
+
+    @Test
+    public void outOfRangeValuesGoToTheEdgeBuckets() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(1);
+        histogram.record(TimeUnit.MINUTES.toNanos(5));
+
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Assert.assertEquals(3, snapshot.count());
+        Assert.assertEquals(2, snapshot.bucketCount(0));
+        Assert.assertEquals(1, snapshot.bucketCount(snapshot.buckets()));
+        Assert.assertEquals(Long.MAX_VALUE, snapshot.percentileNanos(100));
+    }
+
+    @Test
+    public void percentilesAreBucketUpperBounds() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 99; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(100));
+
+        final LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        final long p50 = snapshot.percentileNanos(50);
+        Assert.assertTrue(p50 > TimeUnit.MILLISECONDS.toNanos(1) && p50 <= TimeUnit.MICROSECONDS.toNanos(1250));
+        Assert.assertEquals(p50, snapshot.percentileNanos(99));
+        Assert.assertTrue(snapshot.percentileNanos(100) > TimeUnit.MILLISECONDS.toNanos(100));
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(199), snapshot.sumNanos);
+    }
+
+    @Test
+    public void emptyHistogramHasNoPercentiles() {
+        Assert.assertEquals(0, new LatencyHistogram().snapshot().percentileNanos(99));
+    }
+}
@@ -0,0 +1,60 @@
+package metrics;
+
+import cache.AsyncCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+public class MetricsTest {
+
+    @Test
+    public void timesRepositoryCallsUntilCompletion() {
+        final Metrics metrics = new Metrics(Duration.ZERO);
+        final CompletableFuture<String> call = new CompletableFuture<>();
+        final RepositoryMetrics repository = metrics.repository("mongodb");
+
+        repository.time("heroById", () -> call);
+        Assert.assertEquals(0, repository.latency("heroById").snapshot().count());
+        call.complete("hero");
+        Assert.assertEquals(1, repository.latency("heroById").snapshot().count());
+    }
+
+    @Test
+    public void timesFailedCalls() {
+        final RepositoryMetrics repository = new Metrics(Duration.ZERO).repository("redis");
+        final CompletableFuture<String> call = new CompletableFuture<>();
+        repository.time("topHeroesVisited", () -> call);
+        call.completeExceptionally(new IllegalStateException("down"));
+        Assert.assertEquals(1, repository.latency("topHeroesVisited").snapshot().count());
+    }
+
+    @Test
+    public void rendersPrometheusText() {
+        final Metrics metrics = new Metrics(Duration.ZERO);
+        final RepositoryMetrics elasticsearch = metrics.repository("elasticsearch");
+        elasticsearch.latency("suggest").record(TimeUnit.MILLISECONDS.toNanos(3));
+        elasticsearch.swallowedError();
+        final AsyncCache<String, String> cache = new AsyncCache<>("heroes", 10, Duration.ofMinutes(1));
+        metrics.registerCache(cache);
+        cache.get("a", key -> CompletableFuture.completedFuture("A"));
+        cache.get("a", key -> CompletableFuture.completedFuture("A"));
+        cache.get("a", key -> CompletableFuture.completedFuture("A"));
+        cache.get("b", key -> CompletableFuture.completedFuture("B"));
+
+        final String text = metrics.prometheus();
+        Assert.assertTrue(text.contains("# TYPE repository_call_duration_seconds histogram\n"));
+        Assert.assertTrue(text.contains("repository_call_duration_seconds_bucket{repository=\"elasticsearch\",method=\"suggest\",le=\"0.00262144\"} 0\n"));
+        Assert.assertTrue(text.contains("repository_call_duration_seconds_bucket{repository=\"elasticsearch\",method=\"suggest\",le=\"0.003145728\"} 1\n"));
+        Assert.assertTrue(text.contains("repository_call_duration_seconds_bucket{repository=\"elasticsearch\",method=\"suggest\",le=\"+Inf\"} 1\n"));
+        Assert.assertTrue(text.contains("repository_call_duration_seconds_sum{repository=\"elasticsearch\",method=\"suggest\"} 0.003\n"));
+        Assert.assertTrue(text.contains("repository_call_duration_seconds_count{repository=\"elasticsearch\",method=\"suggest\"} 1\n"));
+        Assert.assertTrue(text.contains("repository_swallowed_errors_total{repository=\"elasticsearch\"} 1\n"));
+        Assert.assertTrue(text.contains("cache_requests_total{cache=\"heroes\",result=\"hit\"} 2\n"));
+        Assert.assertTrue(text.contains("cache_requests_total{cache=\"heroes\",result=\"miss\"} 2\n"));
+        Assert.assertTrue(text.contains("cache_hit_ratio{cache=\"heroes\"} 0.5\n"));
+        Assert.assertTrue(text.contains("cache_size{cache=\"heroes\"} 2\n"));
+    }
+}
@@ -0,0 +1,25 @@
+package models;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InvalidationTest {
+
+    @Test
+    public void testRoundTrip() {
+        Invalidation.Sent sent = Invalidation.decode(Invalidation.hero("1009368").encode("node-1")).get();
+        Assert.assertEquals("node-1", sent.nodeId);
+        Assert.assertEquals(Invalidation.Kind.HERO, sent.invalidation.kind);
+        Assert.assertEquals("1009368", sent.invalidation.key);
+
+        Assert.assertEquals(Invalidation.Kind.SEARCHES, Invalidation.decode(Invalidation.searches().encode("node-1")).get().invalidation.kind);
+        Assert.assertEquals(Invalidation.Kind.ALL_HEROES, Invalidation.decode(Invalidation.allHeroes().encode("node-1")).get().invalidation.kind);
+    }
+
+    @Test
+    public void testMalformedMessages() {
+        Assert.assertFalse(Invalidation.decode("").isPresent());
+        Assert.assertFalse(Invalidation.decode("node-1 UNKNOWN 1009368").isPresent());
+        Assert.assertFalse(Invalidation.decode("node-1 HERO ").isPresent());
+    }
+}
@@ -0,0 +1,38 @@
+package models;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.junit.Assert;
+import org.junit.Test;
+import play.libs.Json;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+
+public class SearchCursorTest {
+
+    @Test
+    public void testRoundTrip() {
+        ArrayNode after = Json.newArray().add(1.5).add("1009368");
+
+        SearchCursor withoutPit = SearchCursor.decode(new SearchCursor(after, Optional.empty()).encode()).get();
+        Assert.assertEquals(after, withoutPit.searchAfter);
+        Assert.assertFalse(withoutPit.pointInTimeId.isPresent());
+
+        SearchCursor withPit = SearchCursor.decode(new SearchCursor(after, Optional.of("pit-1")).encode()).get();
+        Assert.assertEquals(after, withPit.searchAfter);
+        Assert.assertEquals(Optional.of("pit-1"), withPit.pointInTimeId);
+    }
+
+    @Test
+    public void testMalformedCursors() {
+        Assert.assertFalse(SearchCursor.decode("not base64!").isPresent());
+        Assert.assertFalse(SearchCursor.decode(encode("{\"after\":")).isPresent());
+        Assert.assertFalse(SearchCursor.decode(encode("{\"pit\":\"pit-1\"}")).isPresent());
+        Assert.assertFalse(SearchCursor.decode(encode("{\"after\":\"1009368\"}")).isPresent());
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,32 @@
+package repository;
+
+import env.RepositoryLogConfiguration;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+public class AccessLogTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void samplesAtMostTheRatePerSecond() {
+        final AccessLog accessLog = new AccessLog("redis", new RepositoryLogConfiguration(AccessLog.SAMPLED, 2, Duration.ZERO));
+        Assert.assertTrue(accessLog.sample(10 * SECOND));
+        Assert.assertTrue(accessLog.sample(10 * SECOND + 1));
+        Assert.assertFalse(accessLog.sample(10 * SECOND + 2));
+        Assert.assertFalse(accessLog.sample(11 * SECOND - 1));
+    }
+
+    @Test
+    public void startsOverEverySecond() {
+        final AccessLog accessLog = new AccessLog("mongodb", new RepositoryLogConfiguration(AccessLog.SAMPLED, 1, Duration.ZERO));
+        Assert.assertTrue(accessLog.sample(SECOND));
+        Assert.assertFalse(accessLog.sample(SECOND + 1));
+        Assert.assertTrue(accessLog.sample(2 * SECOND));
+        Assert.assertTrue(accessLog.sample(5 * SECOND));
+        Assert.assertFalse(accessLog.sample(5 * SECOND + 1));
+    }
+}
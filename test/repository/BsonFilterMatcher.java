@@ -0,0 +1,80 @@
+package repository;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+
+import java.util.Map;
+
+/**
+ * Evaluates the query operators used by {@link MongoDBRepository} against a document, with MongoDB semantics for
+ * missing fields: {@code $ne} matches them, {@code $exists} tells them apart.
+ */
+public final class BsonFilterMatcher {
+
+    private BsonFilterMatcher() {
+    }
+
+    public static boolean matches(Bson filter, BsonDocument document) {
+        return matches(filter.toBsonDocument(Document.class, MongoClientSettings.getDefaultCodecRegistry()), document);
+    }
+
+    private static boolean matches(BsonDocument filter, BsonDocument document) {
+        for (Map.Entry<String, BsonValue> clause : filter.entrySet()) {
+            if (clause.getKey().equals("$and")) {
+                for (BsonValue and : clause.getValue().asArray()) {
+                    if (!matches(and.asDocument(), document)) {
+                        return false;
+                    }
+                }
+            } else if (!matchesField(clause.getValue(), field(document, clause.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matchesField(BsonValue condition, BsonValue value) {
+        if (!condition.isDocument() || !condition.asDocument().keySet().stream().allMatch(key -> key.startsWith("$"))) {
+            return condition.equals(value);
+        }
+        for (Map.Entry<String, BsonValue> operator : condition.asDocument().entrySet()) {
+            switch (operator.getKey()) {
+                case "$exists":
+                    if ((value != null) != operator.getValue().asBoolean().getValue()) {
+                        return false;
+                    }
+                    break;
+                case "$ne":
+                    if (operator.getValue().equals(value)) {
+                        return false;
+                    }
+                    break;
+                case "$in":
+                    if (value == null || !operator.getValue().asArray().contains(value)) {
+                        return false;
+                    }
+                    break;
+                default:
+                    throw new UnsupportedOperationException(operator.getKey());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The value at the dotted {@code path}, or null if missing.
+     */
+    private static BsonValue field(BsonDocument document, String path) {
+        BsonValue value = document;
+        for (String key : path.split("\\.")) {
+            if (value == null || !value.isDocument()) {
+                return null;
+            }
+            value = value.asDocument().get(key);
+        }
+        return value;
+    }
+}
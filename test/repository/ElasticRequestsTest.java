@@ -0,0 +1,88 @@
+package repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Assert;
+import org.junit.Test;
+import play.libs.Json;
+import utils.HeroSamples;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+public class ElasticRequestsTest {
+
+    private static JsonNode parse(byte[] body) {
+        return Json.parse(new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSearchBody() {
+        JsonNode body = parse(ElasticRequests.search("iron", 20, 10));
+        Assert.assertEquals(20, body.get("from").asInt());
+        Assert.assertEquals(10, body.get("size").asInt());
+        Assert.assertEquals("iron~", body.at("/query/query_string/query").asText());
+        Assert.assertEquals("name^4", body.at("/query/query_string/fields/0").asText());
+        Assert.assertEquals(5, body.at("/query/query_string/fields").size());
+        Assert.assertEquals("imageUrl", body.at("/_source/1").asText());
+    }
+
+    @Test
+    public void testEmptyInputMatchesEverything() {
+        Assert.assertEquals("*", parse(ElasticRequests.search("", 0, 10)).at("/query/query_string/query").asText());
+    }
+
+    @Test
+    public void testInputIsEscaped() {
+        String input = "\"}, \"size\": 10000, \"x\": {\"\\";
+        JsonNode body = parse(ElasticRequests.search(input, 0, 10));
+        Assert.assertEquals(10, body.get("size").asInt());
+        Assert.assertEquals(input + "~", body.at("/query/query_string/query").asText());
+
+        Assert.assertEquals(input, parse(ElasticRequests.suggest(input)).at("/suggest/suggestion/prefix").asText());
+    }
+
+    @Test
+    public void testSearchAfterBody() {
+        JsonNode first = parse(ElasticRequests.searchAfter("iron", 10, Optional.empty(), Optional.empty(), "1m"));
+        Assert.assertFalse(first.has("from"));
+        Assert.assertFalse(first.has("search_after"));
+        Assert.assertFalse(first.has("pit"));
+        Assert.assertEquals("asc", first.at("/sort/1/_id").asText());
+
+        JsonNode next = parse(ElasticRequests.searchAfter("iron", 10, Optional.of(Json.parse("[1.5, \"1009368\"]")), Optional.of("pit-id"), "1m"));
+        Assert.assertEquals("1009368", next.at("/search_after/1").asText());
+        Assert.assertEquals("pit-id", next.at("/pit/id").asText());
+        Assert.assertEquals("1m", next.at("/pit/keep_alive").asText());
+        Assert.assertEquals("asc", next.at("/sort/1/_shard_doc").asText());
+    }
+
+    @Test
+    public void testBulkIndexBody() throws IOException {
+        String[] lines = new String(ElasticRequests.bulkIndex("heroes-1", Arrays.asList(HeroSamples.ironMan(), HeroSamples.spiderMan())), StandardCharsets.UTF_8).split("\n");
+        Assert.assertEquals(4, lines.length);
+        JsonNode action = Json.parse(lines[0]);
+        Assert.assertEquals("heroes-1", action.at("/index/_index").asText());
+        Assert.assertEquals(HeroSamples.ironMan().id, action.at("/index/_id").asText());
+        JsonNode document = Json.parse(lines[1]);
+        Assert.assertEquals("Iron Man", document.get("name").asText());
+        Assert.assertEquals("Iron Man", document.at("/suggest/0/input").asText());
+        Assert.assertEquals(8, document.at("/suggest/0/weight").asInt());
+        document.get("suggest").forEach(input -> Assert.assertFalse(input.get("input").asText().isEmpty()));
+        Assert.assertEquals(HeroSamples.spiderMan().id, Json.parse(lines[2]).at("/index/_id").asText());
+    }
+
+    @Test
+    public void testSwapAliasBody() {
+        JsonNode replacing = parse(ElasticRequests.swapAlias("heroes", "heroes-2", Collections.emptySet(), true));
+        Assert.assertEquals("heroes", replacing.at("/actions/0/remove_index/index").asText());
+        Assert.assertEquals("heroes-2", replacing.at("/actions/1/add/index").asText());
+
+        JsonNode moving = parse(ElasticRequests.swapAlias("heroes", "heroes-2", Collections.singleton("heroes-1"), false));
+        Assert.assertEquals("heroes-1", moving.at("/actions/0/remove/index").asText());
+        Assert.assertEquals("heroes", moving.at("/actions/1/add/alias").asText());
+        Assert.assertEquals(2, moving.get("actions").size());
+    }
+}
@@ -0,0 +1,90 @@
+package repository;
+
+import models.SearchedHero;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+public class ElasticResponsesTest {
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testSearchResponse() {
+        ElasticResponses.SearchPage page = ElasticResponses.search(bytes("{\n" +
+                "  \"took\": 3, \"timed_out\": false, \"_shards\": {\"total\": 1, \"successful\": 1},\n" +
+                "  \"pit_id\": \"pit-id\",\n" +
+                "  \"hits\": {\n" +
+                "    \"total\": {\"value\": 42, \"relation\": \"eq\"},\n" +
+                "    \"max_score\": 2.5,\n" +
+                "    \"hits\": [\n" +
+                "      {\"_index\": \"heroes\", \"_id\": \"1009368\", \"_score\": 2.5,\n" +
+                "       \"_source\": {\"name\": \"Iron Man\", \"imageUrl\": \"https://image.url\", \"universe\": \"Marvel\", \"gender\": \"Male\", \"suggest\": [{\"input\": \"Iron Man\", \"weight\": 8}]},\n" +
+                "       \"sort\": [2.5, \"1009368\"]},\n" +
+                "      {\"_index\": \"heroes\", \"_id\": \"1009610\", \"_score\": 1.5,\n" +
+                "       \"_source\": {\"name\": \"Spider-Man\", \"universe\": null},\n" +
+                "       \"sort\": [1.5, \"1009610\"]}\n" +
+                "    ]\n" +
+                "  }\n" +
+                "}"));
+        Assert.assertEquals(42, page.total);
+        Assert.assertEquals(2, page.heroes.size());
+        SearchedHero ironMan = page.heroes.get(0);
+        Assert.assertEquals("1009368", ironMan.id);
+        Assert.assertEquals("Iron Man", ironMan.name);
+        Assert.assertEquals("https://image.url", ironMan.imageUrl);
+        Assert.assertEquals("Marvel", ironMan.universe);
+        Assert.assertEquals("Male", ironMan.gender);
+        Assert.assertNull(page.heroes.get(1).universe);
+        Assert.assertEquals("1009610", page.lastSort.get().get(1).asText());
+        Assert.assertEquals("pit-id", page.pointInTimeId.get());
+    }
+
+    @Test
+    public void testLegacyTotal() {
+        ElasticResponses.SearchPage page = ElasticResponses.search(bytes("{\"hits\": {\"total\": 7, \"hits\": []}}"));
+        Assert.assertEquals(7, page.total);
+        Assert.assertTrue(page.heroes.isEmpty());
+        Assert.assertFalse(page.lastSort.isPresent());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testErrorResponse() {
+        ElasticResponses.search(bytes("{\"error\": {\"type\": \"index_not_found_exception\"}, \"status\": 404}"));
+    }
+
+    @Test
+    public void testSuggestResponse() {
+        List<SearchedHero> heroes = ElasticResponses.suggest(bytes("{\n" +
+                "  \"suggest\": {\n" +
+                "    \"suggestion\": [\n" +
+                "      {\"text\": \"iro\", \"offset\": 0, \"length\": 3, \"options\": [\n" +
+                "        {\"text\": \"Iron Man\", \"_id\": \"1009368\", \"_score\": 8.0, \"_source\": {\"name\": \"Iron Man\", \"gender\": \"Male\"}},\n" +
+                "        {\"text\": \"Iron Fist\", \"_id\": \"1009367\", \"_score\": 8.0, \"_source\": {\"name\": \"Iron Fist\"}}\n" +
+                "      ]}\n" +
+                "    ]\n" +
+                "  }\n" +
+                "}"));
+        Assert.assertEquals(2, heroes.size());
+        Assert.assertEquals("1009368", heroes.get(0).id);
+        Assert.assertEquals("Iron Fist", heroes.get(1).name);
+    }
+
+    @Test
+    public void testBulkResponse() {
+        ElasticResponses.BulkItems items = ElasticResponses.bulk(bytes("{\"took\": 30, \"errors\": true, \"items\": [\n" +
+                "  {\"index\": {\"_index\": \"heroes-1\", \"_id\": \"1\", \"result\": \"created\", \"status\": 201}},\n" +
+                "  {\"index\": {\"_index\": \"heroes-1\", \"_id\": \"2\", \"status\": 429, \"error\": {\"type\": \"es_rejected_execution_exception\"}}},\n" +
+                "  {\"index\": {\"_index\": \"heroes-1\", \"_id\": \"3\", \"status\": 400, \"error\": {\"type\": \"mapper_parsing_exception\"}}},\n" +
+                "  {\"index\": {\"_index\": \"heroes-1\", \"_id\": \"4\", \"result\": \"updated\", \"status\": 200}}\n" +
+                "]}"));
+        Assert.assertEquals(2, items.indexed);
+        Assert.assertEquals(1, items.failed);
+        Assert.assertEquals(Collections.singletonList(1), items.retryable);
+    }
+}
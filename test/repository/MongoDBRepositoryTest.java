@@ -0,0 +1,47 @@
+package repository;
+
+import codecs.HeroCodec;
+import models.Hero;
+import models.HeroIdentity;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentWriter;
+import org.bson.codecs.EncoderContext;
+import org.junit.Assert;
+import org.junit.Test;
+import utils.HeroSamples;
+
+import java.io.IOException;
+import java.util.Optional;
+
+public class MongoDBRepositoryTest {
+
+    private static BsonDocument withIdentity(String identity) {
+        return BsonDocument.parse("{\"id\": \"1009368\", \"identity\": " + identity + "}");
+    }
+
+    @Test
+    public void statsKeepHeroesWithAYear() {
+        Assert.assertTrue(BsonFilterMatcher.matches(MongoDBRepository.KNOWN_YEAR_APPEARANCE, withIdentity("{\"yearAppearance\": \"1963\"}")));
+        Assert.assertTrue(BsonFilterMatcher.matches(MongoDBRepository.KNOWN_YEAR_APPEARANCE, withIdentity("{\"yearAppearance\": 1963}")));
+    }
+
+    @Test
+    public void statsSkipBlankYearsOfTheNodeImport() {
+        Assert.assertFalse(BsonFilterMatcher.matches(MongoDBRepository.KNOWN_YEAR_APPEARANCE, withIdentity("{\"yearAppearance\": \"\"}")));
+    }
+
+    @Test
+    public void statsSkipMissingYearsOfTheJavaImport() throws IOException {
+        final Hero ironMan = HeroSamples.ironMan();
+        final HeroIdentity identity = ironMan.identity;
+        final Hero withoutYear = new Hero(ironMan.id, ironMan.name, ironMan.imageUrl, ironMan.backgroundImageUrl, ironMan.externalLink, ironMan.description,
+                new HeroIdentity(identity.secretIdentities, identity.birthPlace, identity.occupation, identity.aliases, identity.alignment,
+                        identity.firstAppearance, Optional.empty(), identity.universe),
+                ironMan.appearance, ironMan.teams, ironMan.powers, ironMan.partners, ironMan.skills, ironMan.creators);
+        final BsonDocument document = new BsonDocument();
+        new HeroCodec().encode(new BsonDocumentWriter(document), withoutYear, EncoderContext.builder().build());
+
+        Assert.assertFalse(document.getDocument("identity").containsKey("yearAppearance"));
+        Assert.assertFalse(BsonFilterMatcher.matches(MongoDBRepository.KNOWN_YEAR_APPEARANCE, document));
+    }
+}
@@ -0,0 +1,21 @@
+package search;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class AnalyzerTest {
+
+    @Test
+    public void testNormalize() {
+        Assert.assertEquals("spider man", Analyzer.normalize("  Spider-Man!"));
+        Assert.assertEquals("3 d man", Analyzer.normalize("3-D Man"));
+    }
+
+    @Test
+    public void testTokens() {
+        Assert.assertEquals(Arrays.asList("peter", "parker", "s"), Analyzer.tokens("Peter Parker's"));
+        Assert.assertTrue(Analyzer.tokens(" - ").isEmpty());
+    }
+}
@@ -0,0 +1,39 @@
+package search;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+public class InvertedIndexTest {
+
+    private final InvertedIndex<String> index = new InvertedIndex.Builder<String>(4, 3, 1)
+            .add("iron-man", Arrays.asList(Collections.singletonList("Iron Man"), Collections.singletonList("Tony Stark"), Collections.singletonList("Pepper Potts")))
+            .add("war-machine", Arrays.asList(Collections.singletonList("War Machine"), Collections.singletonList("James Rhodes"), Collections.singletonList("Iron Man")))
+            .add("spider-man", Arrays.asList(Collections.singletonList("Spider-Man"), Arrays.asList("Peter Parker", "Spidey"), Collections.emptyList()))
+            .build();
+
+    @Test
+    public void testBoosts() {
+        InvertedIndex.Results<String> results = index.search("iron", 0, 10);
+        Assert.assertEquals(2, results.total);
+        Assert.assertEquals(Arrays.asList("iron-man", "war-machine"), results.hits);
+    }
+
+    @Test
+    public void testFuzzyAndPrefix() {
+        Assert.assertEquals(Collections.singletonList("iron-man"), index.search("stak~", 0, 10).hits);
+        Assert.assertEquals(Collections.singletonList("spider-man"), index.search("spid*", 0, 10).hits);
+        Assert.assertTrue(index.search("stak", 0, 10).hits.isEmpty());
+    }
+
+    @Test
+    public void testMatchAllAndPaging() {
+        InvertedIndex.Results<String> results = index.search("*", 2, 2);
+        Assert.assertEquals(3, results.total);
+        Assert.assertEquals(Collections.singletonList("spider-man"), results.hits);
+        Assert.assertEquals(1, InvertedIndex.editDistance("stark", "stak", 2));
+        Assert.assertEquals(3, InvertedIndex.editDistance("stark", "hulk", 2));
+    }
+}
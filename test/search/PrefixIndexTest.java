@@ -0,0 +1,29 @@
+package search;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class PrefixIndexTest {
+
+    @Test
+    public void testLookup() {
+        PrefixIndex.Builder<String> builder = new PrefixIndex.Builder<>();
+        int spiderMan = builder.addItem("spider-man");
+        builder.addInput(spiderMan, "Spider-Man", 8).addInput(spiderMan, "Peter Parker", 4);
+        int spiderWoman = builder.addItem("spider-woman");
+        builder.addInput(spiderWoman, "Spider-Woman", 8);
+        int peggy = builder.addItem("peggy-carter");
+        builder.addInput(peggy, "Peggy Carter", 8).addInput(peggy, "Spider friend", 1);
+        PrefixIndex<String> index = builder.build();
+
+        Assert.assertEquals(Arrays.asList("spider-man", "spider-woman", "peggy-carter"), index.lookup("spi", 5));
+        Assert.assertEquals(Arrays.asList("spider-man", "spider-woman"), index.lookup("SPIDER ", 2));
+        Assert.assertEquals(Arrays.asList("spider-woman"), index.lookup("spider w", 5));
+        Assert.assertEquals(Arrays.asList("peggy-carter", "spider-man"), index.lookup("pe", 5));
+        Assert.assertTrue(index.lookup("hulk", 5).isEmpty());
+        Assert.assertTrue(index.lookup("", 5).isEmpty());
+    }
+}
@@ -0,0 +1,30 @@
+package services;
+
+import models.HeroVisits;
+import org.junit.Assert;
+import org.junit.Test;
+import utils.StatItemSamples;
+
+import java.util.List;
+
+public class HeroVisitCountersTest {
+
+    @Test
+    public void testDrain() {
+        HeroVisitCounters counters = new HeroVisitCounters();
+        counters.increment(StatItemSamples.IronMan(), 10);
+        counters.increment(StatItemSamples.IronMan(), 30);
+        counters.increment(StatItemSamples.Thanos(), 20);
+        counters.increment(StatItemSamples.IronMan(), 25);
+
+        List<HeroVisits> visits = counters.drain();
+        Assert.assertEquals(2, visits.size());
+        HeroVisits ironMan = visits.stream().filter(v -> v.statItem.slug.equals("iron-man")).findFirst().get();
+        Assert.assertEquals(3, ironMan.count);
+        Assert.assertEquals(30, ironMan.lastVisitedAt);
+
+        Assert.assertTrue(counters.drain().isEmpty());
+        counters.increment(StatItemSamples.Thanos(), 40);
+        Assert.assertEquals(1, counters.drain().get(0).count);
+    }
+}
@@ -0,0 +1,50 @@
+package tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+public class OtlpTracesTest {
+
+    @Test
+    public void exportsRootAndChildSpans() {
+        final Trace home = new Trace("GET /", "request-1");
+        home.span("searchHeroes", () -> CompletableFuture.completedFuture("heroes"));
+        home.end();
+        final Trace stats = new Trace("GET /stats", "");
+        stats.end();
+
+        final JsonNode resourceSpans = OtlpTraces.request(Arrays.asList(home, stats)).get("resourceSpans").get(0);
+        Assert.assertEquals("service.name", resourceSpans.at("/resource/attributes/0/key").asText());
+        Assert.assertEquals(OtlpTraces.SERVICE_NAME, resourceSpans.at("/resource/attributes/0/value/stringValue").asText());
+
+        final JsonNode spans = resourceSpans.at("/scopeSpans/0/spans");
+        Assert.assertEquals(3, spans.size());
+        final JsonNode root = spans.get(0);
+        final JsonNode child = spans.get(1);
+        Assert.assertEquals("GET /", root.get("name").asText());
+        Assert.assertEquals(home.traceId, root.get("traceId").asText());
+        Assert.assertFalse(root.has("parentSpanId"));
+        Assert.assertEquals("searchHeroes", child.get("name").asText());
+        Assert.assertEquals(home.traceId, child.get("traceId").asText());
+        Assert.assertEquals(root.get("spanId").asText(), child.get("parentSpanId").asText());
+        Assert.assertTrue(Long.parseLong(child.get("endTimeUnixNano").asText()) <= Long.parseLong(root.get("endTimeUnixNano").asText()));
+        Assert.assertTrue(Long.parseLong(child.get("startTimeUnixNano").asText()) >= Long.parseLong(root.get("startTimeUnixNano").asText()));
+        Assert.assertEquals("GET /stats", spans.get(2).get("name").asText());
+    }
+
+    @Test
+    public void marksFailedSpansAsErrors() {
+        final Trace trace = new Trace("GET /stats", "");
+        final CompletableFuture<String> failed = new CompletableFuture<>();
+        failed.completeExceptionally(new IllegalStateException("down"));
+        trace.span("topPowers", () -> failed);
+        trace.end();
+
+        final JsonNode child = OtlpTraces.request(Arrays.asList(trace)).at("/resourceSpans/0/scopeSpans/0/spans/1");
+        Assert.assertEquals(2, child.at("/status/code").asInt());
+    }
+}
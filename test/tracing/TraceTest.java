@@ -0,0 +1,65 @@
+package tracing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+public class TraceTest {
+
+    @Test
+    public void recordsOneSpanPerCall() {
+        final Trace trace = new Trace("GET /", "");
+        final CompletableFuture<String> search = new CompletableFuture<>();
+        final CompletableFuture<String> tops = new CompletableFuture<>();
+        trace.span("searchHeroes", () -> search);
+        trace.span("topsHeroes", () -> tops);
+
+        Assert.assertEquals(2, trace.spans().size());
+        Assert.assertFalse(trace.criticalPath().isPresent());
+        tops.complete("tops");
+        search.complete("heroes");
+        Assert.assertEquals("searchHeroes", trace.criticalPath().get().name);
+    }
+
+    @Test
+    public void marksFailedSpans() {
+        final Trace trace = new Trace("GET /stats", "");
+        trace.span("topPowers", () -> {
+            final CompletableFuture<String> failed = new CompletableFuture<>();
+            failed.completeExceptionally(new IllegalStateException("down"));
+            return failed;
+        });
+        Assert.assertTrue(trace.spans().get(0).failed());
+    }
+
+    @Test
+    public void keepsTheClientRequestId() {
+        Assert.assertEquals("abc", new Trace("GET /", "abc").requestId);
+        final Trace trace = new Trace("GET /", "");
+        Assert.assertEquals(trace.traceId, trace.requestId);
+        Assert.assertTrue(trace.traceId.matches("[0-9a-f]{32}"));
+        Assert.assertTrue(trace.spanId.matches("[0-9a-f]{16}"));
+    }
+
+    @Test
+    public void disabledTraceOnlyRunsCalls() {
+        final Trace trace = Trace.disabled();
+        Assert.assertEquals("value", trace.span("call", () -> CompletableFuture.completedFuture("value")).toCompletableFuture().join());
+        Assert.assertTrue(trace.spans().isEmpty());
+    }
+
+    @Test
+    public void serializesToJson() {
+        final Trace trace = new Trace("GET /", "request-1");
+        trace.span("searchHeroes", () -> CompletableFuture.completedFuture("heroes"));
+        trace.end();
+
+        final JsonNode json = trace.toJson();
+        Assert.assertEquals("request-1", json.get("requestId").asText());
+        Assert.assertEquals("searchHeroes", json.get("criticalPath").asText());
+        Assert.assertEquals("searchHeroes", json.get("spans").get(0).get("name").asText());
+        Assert.assertFalse(json.get("spans").get(0).get("failed").asBoolean());
+    }
+}